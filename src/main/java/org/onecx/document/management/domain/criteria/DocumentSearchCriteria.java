@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.onecx.document.management.domain.models.enums.LifeCycleState;
+import org.onecx.document.management.domain.models.enums.SearchMode;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -47,10 +48,34 @@ public class DocumentSearchCriteria {
     private String objectReferenceId;
 
     private String objectReferenceType;
+    /**
+     * How name, object reference id and object reference type match,
+     * {@code null} for {@link SearchMode#PREFIX}.
+     */
+    private SearchMode searchMode;
+    /**
+     * True to order by the similarity of name, object reference id and object
+     * reference type to the criteria first.
+     */
+    private boolean orderByRelevance;
 
     private Integer pageNumber;
     /**
      * The size of page.
      */
     private Integer pageSize;
+    /**
+     * The modification date of the last document of the previous page. Only used
+     * if {@link #afterId} is set.
+     */
+    private LocalDateTime afterModificationDate;
+    /**
+     * The id of the last document of the previous page. If set, the page starts
+     * after this document instead of at the page number.
+     */
+    private String afterId;
+    /**
+     * False to skip counting the total number of documents.
+     */
+    private boolean withCount = true;
 }
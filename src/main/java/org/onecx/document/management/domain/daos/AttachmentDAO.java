@@ -1,17 +1,32 @@
 package org.onecx.document.management.domain.daos;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
+import org.hibernate.query.NativeQuery;
 import org.onecx.document.management.domain.models.entities.Attachment;
 import org.onecx.document.management.domain.models.entities.Attachment_;
+import org.onecx.document.management.domain.models.entities.Document;
+import org.onecx.document.management.domain.models.entities.Document_;
 import org.onecx.document.management.domain.models.entities.SupportedMimeType;
+import org.onecx.document.management.domain.models.entities.SupportedMimeType_;
+import org.onecx.document.management.domain.models.projections.AttachmentObject;
+import org.onecx.document.management.domain.models.projections.DocumentAttachmentFile;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.models.AbstractTraceableEntity_;
 import org.tkit.quarkus.jpa.models.TraceableEntity_;
 
 /**
@@ -45,4 +60,94 @@ public class AttachmentDAO extends AbstractDAO<Attachment> {
         em.createQuery(deleteQuery).executeUpdate();
     }
 
+    /**
+     * Finds a page of the uploaded attachment files of the given documents ordered
+     * by document id and attachment id. The caller pages with the ids of the last
+     * file of the previous call.
+     *
+     * @param documentIds the document ids
+     * @param afterDocumentId the document id of the last file of the previous
+     *        page, {@code null} for the first page
+     * @param afterAttachmentId the attachment id of the last file of the previous
+     *        page
+     * @param limit the max. number of files
+     * @return a {@link List<DocumentAttachmentFile>}
+     */
+    public List<DocumentAttachmentFile> findUploadedFilesOfDocuments(Collection<String> documentIds,
+            String afterDocumentId, String afterAttachmentId, int limit) {
+        var cb = em.getCriteriaBuilder();
+        CriteriaQuery<DocumentAttachmentFile> cq = cb.createQuery(DocumentAttachmentFile.class);
+        Root<Document> document = cq.from(Document.class);
+        Join<Document, Attachment> attachment = document.join(Document_.ATTACHMENTS);
+        Join<Attachment, SupportedMimeType> mimeType = attachment.join(Attachment_.MIME_TYPE, JoinType.LEFT);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(document.get(TraceableEntity_.ID).in(documentIds));
+        predicates.add(cb.isTrue(attachment.get(Attachment_.STORAGE_UPLOAD_STATUS)));
+        if (Objects.nonNull(afterDocumentId)) {
+            predicates.add(cb.or(
+                    cb.greaterThan(document.get(TraceableEntity_.ID), afterDocumentId),
+                    cb.and(cb.equal(document.get(TraceableEntity_.ID), afterDocumentId),
+                            cb.greaterThan(attachment.get(TraceableEntity_.ID), afterAttachmentId))));
+        }
+        cq.select(cb.construct(DocumentAttachmentFile.class,
+                document.get(TraceableEntity_.ID),
+                document.get(Document_.NAME),
+                attachment.get(TraceableEntity_.ID),
+                attachment.get(Attachment_.FILE_NAME),
+                attachment.get(AbstractTraceableEntity_.CREATION_DATE),
+                mimeType.get(SupportedMimeType_.NAME)))
+                .where(cb.and(predicates.toArray(new Predicate[0])))
+                .orderBy(cb.asc(document.get(TraceableEntity_.ID)), cb.asc(attachment.get(TraceableEntity_.ID)));
+        return em.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Finds a page of attachments ordered by id in the byte order in which the
+     * object storage lists the object names. The caller pages with the id of the
+     * last attachment of the previous call.
+     *
+     * @param afterId the id of the last attachment of the previous page,
+     *        {@code null} for the first page
+     * @param limit the max. number of attachments
+     * @return a {@link List<AttachmentObject>}
+     */
+    @SuppressWarnings("unchecked")
+    public List<AttachmentObject> findAttachmentObjectsAfterId(String afterId, int limit) {
+        String sql = "select guid, storage_upload_status, modificationdate from dm_attachment"
+                + (Objects.isNull(afterId) ? "" : " where guid collate \"C\" > :afterId")
+                + " order by guid collate \"C\" limit :limit";
+        var query = em.createNativeQuery(sql).setParameter("limit", limit);
+        if (Objects.nonNull(afterId)) {
+            query.setParameter("afterId", afterId);
+        }
+        List<Object[]> rows = query.unwrap(NativeQuery.class)
+                .addScalar("guid", String.class)
+                .addScalar("storage_upload_status", Boolean.class)
+                .addScalar("modificationdate", LocalDateTime.class)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new AttachmentObject((String) row[0], Boolean.TRUE.equals(row[1]),
+                        (LocalDateTime) row[2]))
+                .toList();
+    }
+
+    /**
+     * Marks the files of the given attachments as not uploaded, so they are
+     * cleared like failed uploads.
+     *
+     * @param ids the attachment ids
+     * @return the number of updated attachments
+     */
+    public int markFilesNotUploaded(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var cb = em.getCriteriaBuilder();
+        CriteriaUpdate<Attachment> update = cb.createCriteriaUpdate(Attachment.class);
+        Root<Attachment> root = update.from(Attachment.class);
+        update.set(root.get(Attachment_.STORAGE_UPLOAD_STATUS), false)
+                .where(root.get(TraceableEntity_.ID).in(ids));
+        return em.createQuery(update).executeUpdate();
+    }
+
 }
@@ -1,14 +1,15 @@
 package org.onecx.document.management.domain.daos;
 
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Root;
 
 import org.onecx.document.management.domain.models.entities.Channel;
+import org.onecx.document.management.domain.models.entities.Channel_;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
 
 /**
  * ChannelDAO class.
@@ -16,13 +17,69 @@ import org.tkit.quarkus.jpa.daos.AbstractDAO;
 @ApplicationScoped
 public class ChannelDAO extends AbstractDAO<Channel> {
 
-    public Stream<Channel> findAllSortedByNameAsc() {
-        var criteriaBuilder = em.getCriteriaBuilder();
-        CriteriaQuery<Channel> criteriaQuery = criteriaBuilder.createQuery(Channel.class);
-        Root<Channel> root = criteriaQuery.from(Channel.class);
-        criteriaQuery.orderBy(criteriaBuilder.asc(root.get("name")));
-        TypedQuery<Channel> typedQuery = em.createQuery(criteriaQuery);
-        return typedQuery.getResultList().stream();
+    private static final int IN_LIST_SIZE = 1000;
+
+    /**
+     * Emulates a loose index scan on the index of
+     * {@code (lower(name), name, guid)}: every step of the recursion looks up
+     * the next greater name in the index, and the first channel of a name is the
+     * first index entry of the name, so the query reads one index entry per
+     * distinct name instead of all channels. Without {@code name} and
+     * {@code guid} in the index all channels of a name would be read and sorted.
+     */
+    private static final String FIND_DISTINCT_BY_NAME_IGNORE_CASE = """
+            with recursive names(lower_name) as (
+                (select lower(name) from dm_channel where name is not null order by lower(name) limit 1)
+                union all
+                select (select lower(c.name) from dm_channel c where lower(c.name) > n.lower_name
+                        order by lower(c.name) limit 1)
+                from names n where n.lower_name is not null
+            )
+            select channel.* from names n
+            cross join lateral (select * from dm_channel c where lower(c.name) = n.lower_name
+                    order by c.name, c.guid limit 1) channel
+            order by channel.name
+            """;
+
+    /**
+     * Finds one channel per name ignoring case, the first one of the name in
+     * alphabetical order.
+     *
+     * @return the channels sorted by name
+     */
+    @SuppressWarnings("unchecked")
+    public List<Channel> findAllDistinctByNameIgnoreCase() {
+        return em.createNativeQuery(FIND_DISTINCT_BY_NAME_IGNORE_CASE, Channel.class).getResultList();
     }
 
+    /**
+     * @param name the channel name
+     * @return true if a channel with the name ignoring case exists
+     */
+    public boolean existsByNameIgnoreCase(String name) {
+        var cb = em.getCriteriaBuilder();
+        var cq = cb.createQuery(String.class);
+        var root = cq.from(Channel.class);
+        cq.select(root.get(TraceableEntity_.ID)).where(cb.equal(cb.lower(root.get(Channel_.NAME)), name.toLowerCase()));
+        return !em.createQuery(cq).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * @param documentIds the document ids
+     * @return the distinct names of the channels of the documents in lower case
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> findNamesByDocumentIds(Collection<String> documentIds) {
+        List<String> distinctIds = documentIds.stream().distinct().toList();
+        List<String> names = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += IN_LIST_SIZE) {
+            List<String> chunk = distinctIds.subList(from, Math.min(from + IN_LIST_SIZE, distinctIds.size()));
+            names.addAll(em.createNativeQuery("select distinct lower(c.name) from dm_channel c"
+                    + " join dm_document d on d.channel_guid = c.guid"
+                    + " where d.guid in (:ids) and c.name is not null", String.class)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        return names.stream().distinct().toList();
+    }
 }
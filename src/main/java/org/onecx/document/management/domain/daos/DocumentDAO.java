@@ -1,16 +1,28 @@
 package org.onecx.document.management.domain.daos;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.persistence.EntityGraph;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.HibernateHints;
 import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
 import org.onecx.document.management.domain.models.entities.Channel_;
 import org.onecx.document.management.domain.models.entities.Document;
@@ -18,6 +30,7 @@ import org.onecx.document.management.domain.models.entities.DocumentSpecificatio
 import org.onecx.document.management.domain.models.entities.DocumentType;
 import org.onecx.document.management.domain.models.entities.Document_;
 import org.onecx.document.management.domain.models.entities.RelatedObjectRef_;
+import org.onecx.document.management.domain.models.enums.SearchMode;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
 import org.tkit.quarkus.jpa.daos.Page;
 import org.tkit.quarkus.jpa.daos.PageResult;
@@ -31,8 +44,17 @@ import org.tkit.quarkus.jpa.models.TraceableEntity_;
 @ApplicationScoped
 public class DocumentDAO extends AbstractDAO<Document> {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int IN_LIST_SIZE = 1000;
+
+    private static final char LIKE_ESCAPE = '\\';
+
     public enum ErrorKeys {
         ERROR_FIND_DOCUMENT_BY_CRITERIA,
+        ERROR_FIND_DOCUMENT_BY_ID,
+        ERROR_FIND_DOCUMENTS_BY_IDS,
+        ERROR_DELETE_DOCUMENTS_BY_IDS,
         ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED;
     }
 
@@ -48,7 +70,7 @@ public class DocumentDAO extends AbstractDAO<Document> {
             throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
         }
         try {
-            CriteriaQuery<Document> cq = createSearchCriteriaQuery(criteria);
+            CriteriaQuery<Document> cq = createSearchCriteriaQuery(criteria, false);
             return createPageQuery(cq, Page.of(criteria.getPageNumber(), criteria.getPageSize())).getPageResult();
 
         } catch (Exception exception) {
@@ -57,14 +79,251 @@ public class DocumentDAO extends AbstractDAO<Document> {
     }
 
     /**
+     * Finds the documents of a page matching the given
+     * {@link DocumentSearchCriteria} without counting them. If
+     * {@link DocumentSearchCriteria#getAfterId()} is set, the page starts after
+     * this document (keyset pagination), which costs the same for every page.
+     * Otherwise the page number is used as offset. One document more than the
+     * page size is returned if there is a next page.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @return up to page size + 1 documents ordered by modification date and id
+     *         descending
+     */
+    public List<Document> findSliceBySearchCriteria(DocumentSearchCriteria criteria) {
+        if (criteria == null) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
+        }
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<Document> cq = cb.createQuery(Document.class);
+            Root<Document> root = cq.from(Document.class);
+            fetchToOneAssociations(root);
+            createSliceQuery(cb, cq.select(root), root, criteria);
+            return limitSlice(em.createQuery(cq), criteria).getResultList();
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_CRITERIA, exception);
+        }
+    }
+
+    /**
+     * Adds the predicates of the criteria, the cursor and the order of a page of
+     * {@link #findSliceBySearchCriteria(DocumentSearchCriteria)} to the query.
+     *
+     * @param cb the {@link CriteriaBuilder}
+     * @param cq the query with its selection
+     * @param root the {@link Document} root of the query
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @return the given query
+     */
+    <T> CriteriaQuery<T> createSliceQuery(CriteriaBuilder cb, CriteriaQuery<T> cq, Root<Document> root,
+            DocumentSearchCriteria criteria) {
+        List<Predicate> predicates = createSearchCriteriaPredicates(cb, root, criteria);
+        if (Objects.nonNull(criteria.getAfterId())) {
+            predicates.add(createAfterPredicate(cb, root, criteria));
+        }
+        return cq.where(cb.and(predicates.toArray(new Predicate[0])))
+                .orderBy(createOrder(cb, root, criteria));
+    }
+
+    /**
+     * Limits the query to the page size + 1 and skips the previous pages if the
+     * page is selected by number instead of a cursor.
+     *
+     * @param query the query of {@link #createSliceQuery}
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @return the given query
+     */
+    <T> TypedQuery<T> limitSlice(TypedQuery<T> query, DocumentSearchCriteria criteria) {
+        int pageSize = Objects.requireNonNullElse(criteria.getPageSize(), DEFAULT_PAGE_SIZE);
+        query.setMaxResults(pageSize + 1);
+        if (Objects.isNull(criteria.getAfterId()) && Objects.nonNull(criteria.getPageNumber())) {
+            query.setFirstResult(criteria.getPageNumber() * pageSize);
+        }
+        return query;
+    }
+
+    /**
+     * Counts the documents matching the given {@link DocumentSearchCriteria}.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @return the number of documents
+     */
+    public long countBySearchCriteria(DocumentSearchCriteria criteria) {
+        if (criteria == null) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
+        }
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+            Root<Document> root = cq.from(Document.class);
+            List<Predicate> predicates = createSearchCriteriaPredicates(cb, root, criteria);
+            cq.select(cb.count(root)).where(cb.and(predicates.toArray(new Predicate[0])));
+            return em.createQuery(cq).getSingleResult();
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_CRITERIA, exception);
+        }
+    }
+
+    /**
+     * Documents are ordered by modification date descending, where PostgreSQL
+     * puts documents without modification date first, and by id descending. The
+     * disjunction alone cannot bound an index scan, so the redundant
+     * {@code modificationDate <= afterModificationDate} is added, which starts
+     * the scan of the index on modification date and id at the cursor.
+     */
+    private Predicate createAfterPredicate(CriteriaBuilder cb, Root<Document> root, DocumentSearchCriteria criteria) {
+        Path<LocalDateTime> modificationDate = root.get(AbstractTraceableEntity_.MODIFICATION_DATE);
+        Path<String> id = root.get(TraceableEntity_.ID);
+        LocalDateTime afterModificationDate = criteria.getAfterModificationDate();
+        if (Objects.isNull(afterModificationDate)) {
+            return cb.or(cb.isNotNull(modificationDate),
+                    cb.lessThan(id, criteria.getAfterId()));
+        }
+        return cb.and(cb.lessThanOrEqualTo(modificationDate, afterModificationDate),
+                cb.or(cb.lessThan(modificationDate, afterModificationDate),
+                        cb.and(cb.equal(modificationDate, afterModificationDate),
+                                cb.lessThan(id, criteria.getAfterId()))));
+    }
+
+    /**
+     * Loads the document with all its associations. The document and its to-one
+     * associations are selected by one query, then every collection is loaded by
+     * its own query. Fetching all collections by one query would return the
+     * cartesian product of the collections, e.g. 50 tags, 20 characteristics and
+     * 6 attachments of a document result in 6000 rows.
      *
      * @param id the String
      * @return a {@link Document} with all fields. Including these marked as lazy
-     *         fetched.
+     *         fetched. {@code null} if the document does not exist.
      */
     public Document findDocumentById(String id) {
-        EntityGraph<Document> entityGraph = (EntityGraph<Document>) em.getEntityGraph("Document.loadAll");
-        return findById(id, entityGraph);
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<Document> cq = cb.createQuery(Document.class);
+            Root<Document> root = cq.from(Document.class);
+            fetchToOneAssociations(root);
+            cq.where(cb.equal(root.get(TraceableEntity_.ID), id));
+            Document document = em.createQuery(cq).getResultStream().findFirst().orElse(null);
+            if (Objects.nonNull(document)) {
+                Hibernate.initialize(document.getTags());
+                Hibernate.initialize(document.getDocumentRelationships());
+                Hibernate.initialize(document.getCharacteristics());
+                Hibernate.initialize(document.getRelatedParties());
+                Hibernate.initialize(document.getCategories());
+                Hibernate.initialize(document.getAttachments());
+            }
+            return document;
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_ID, exception);
+        }
+    }
+
+    /**
+     * Loads the documents with the given ids and their to-one associations by one
+     * query per {@value #IN_LIST_SIZE} ids. Their collections are loaded in
+     * batches when they are accessed, see {@link Document}.
+     *
+     * @param ids the document ids, {@code null} and duplicate ids are ignored
+     * @return the documents found in no particular order
+     */
+    public List<Document> findDocumentsByIds(Collection<String> ids) {
+        try {
+            List<String> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+            List<Document> documents = new ArrayList<>(distinctIds.size());
+            for (int from = 0; from < distinctIds.size(); from += IN_LIST_SIZE) {
+                var cb = em.getCriteriaBuilder();
+                CriteriaQuery<Document> cq = cb.createQuery(Document.class);
+                Root<Document> root = cq.from(Document.class);
+                fetchToOneAssociations(root);
+                cq.where(root.get(TraceableEntity_.ID)
+                        .in(distinctIds.subList(from, Math.min(from + IN_LIST_SIZE, distinctIds.size()))));
+                documents.addAll(em.createQuery(cq).getResultList());
+            }
+            return documents;
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENTS_BY_IDS, exception);
+        }
+    }
+
+    /**
+     * @param ids the document ids
+     * @return the given ids which do not belong to a document
+     */
+    public List<String> findMissingIds(Collection<String> ids) {
+        try {
+            List<String> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+            Set<String> existingIds = new HashSet<>();
+            for (int from = 0; from < distinctIds.size(); from += IN_LIST_SIZE) {
+                var cb = em.getCriteriaBuilder();
+                CriteriaQuery<String> cq = cb.createQuery(String.class);
+                Root<Document> root = cq.from(Document.class);
+                cq.select(root.get(TraceableEntity_.ID)).where(root.get(TraceableEntity_.ID)
+                        .in(distinctIds.subList(from, Math.min(from + IN_LIST_SIZE, distinctIds.size()))));
+                existingIds.addAll(em.createQuery(cq).getResultList());
+            }
+            return distinctIds.stream().filter(id -> !existingIds.contains(id)).toList();
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENTS_BY_IDS, exception);
+        }
+    }
+
+    /**
+     * Deletes the documents with the given ids by one statement per table and
+     * {@value #IN_LIST_SIZE} ids instead of loading and removing every entity.
+     * Like the cascades of {@link Document}, the tags, category assignments,
+     * relationships, characteristics and attachments are deleted, related
+     * parties are detached and the channels are deleted unless another document
+     * still uses them. Documents loaded into the persistence context before are
+     * not updated.
+     *
+     * @param ids the document ids
+     * @return the ids of the deleted attachments, which are the object names of
+     *         their files
+     */
+    public List<String> deleteDocumentsByIds(Collection<String> ids) {
+        try {
+            List<String> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+            List<String> attachmentIds = new ArrayList<>();
+            for (int from = 0; from < distinctIds.size(); from += IN_LIST_SIZE) {
+                List<String> chunk = distinctIds.subList(from, Math.min(from + IN_LIST_SIZE, distinctIds.size()));
+                attachmentIds.addAll(selectIds(
+                        "select guid from dm_attachment where document_guid in (:ids)", chunk));
+                List<String> channelIds = selectIds("select distinct channel_guid from dm_document"
+                        + " where guid in (:ids) and channel_guid is not null", chunk);
+                executeUpdate("delete from dm_document_tags where document_guid in (:ids)", chunk);
+                executeUpdate("delete from document_category where document_guid in (:ids)", chunk);
+                executeUpdate("update dm_related_party set document_guid = null where document_guid in (:ids)", chunk);
+                executeUpdate("delete from dm_document_relationship where document_guid in (:ids)", chunk);
+                executeUpdate("delete from dm_document_characteristic where document_guid in (:ids)", chunk);
+                executeUpdate("delete from dm_attachment where document_guid in (:ids)", chunk);
+                executeUpdate("delete from dm_document where guid in (:ids)", chunk);
+                if (!channelIds.isEmpty()) {
+                    executeUpdate("delete from dm_channel c where c.guid in (:ids)"
+                            + " and not exists (select 1 from dm_document d where d.channel_guid = c.guid)",
+                            channelIds);
+                }
+            }
+            return attachmentIds;
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_DELETE_DOCUMENTS_BY_IDS, exception);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> selectIds(String sql, List<String> ids) {
+        return em.createNativeQuery(sql, String.class).setParameter("ids", ids).getResultList();
+    }
+
+    private int executeUpdate(String sql, List<String> ids) {
+        return em.createNativeQuery(sql).setParameter("ids", ids).executeUpdate();
+    }
+
+    /**
+     * Writes the pending changes of the managed documents to the database.
+     */
+    public void flush() {
+        em.flush();
     }
 
     /**
@@ -110,35 +369,128 @@ public class DocumentDAO extends AbstractDAO<Document> {
     /**
      *
      * @param value the String
-     * @return String in lower case and matches after the first letters.
+     * @param searchMode the {@link SearchMode}, {@code null} for
+     *        {@link SearchMode#PREFIX}
+     * @return String in lower case and matches after the first letters, or
+     *         anywhere for {@link SearchMode#CONTAINS}, where {@code %} and
+     *         {@code _} of the value match only themselves.
+     */
+    private String stringPattern(String value, SearchMode searchMode) {
+        if (searchMode == SearchMode.CONTAINS) {
+            return "%" + escapeLike(value.toLowerCase(Locale.ROOT)) + "%";
+        }
+        return (value.toLowerCase(Locale.ROOT) + "%");
+    }
+
+    private static String escapeLike(String value) {
+        String escape = String.valueOf(LIKE_ESCAPE);
+        return value.replace(escape, escape + escape)
+                .replace("%", escape + "%")
+                .replace("_", escape + "_");
+    }
+
+    /**
+     * Documents are ordered by modification date and id descending. If
+     * {@link DocumentSearchCriteria#isOrderByRelevance()} is set, they are
+     * ordered by the sum of the trigram similarities of name, object reference id
+     * and object reference type to the criteria first.
+     */
+    private List<Order> createOrder(CriteriaBuilder cb, Root<Document> root, DocumentSearchCriteria criteria) {
+        List<Order> orders = new ArrayList<>();
+        if (criteria.isOrderByRelevance()) {
+            Expression<Float> relevance = null;
+            if (isNotEmpty(criteria.getName())) {
+                relevance = addSimilarity(cb, relevance, root.get(Document_.NAME), criteria.getName());
+            }
+            if (isNotEmpty(criteria.getObjectReferenceId())) {
+                relevance = addSimilarity(cb, relevance,
+                        root.get(Document_.RELATED_OBJECT).get(RelatedObjectRef_.OBJECT_REFERENCE_ID),
+                        criteria.getObjectReferenceId());
+            }
+            if (isNotEmpty(criteria.getObjectReferenceType())) {
+                relevance = addSimilarity(cb, relevance,
+                        root.get(Document_.RELATED_OBJECT).get(RelatedObjectRef_.OBJECT_REFERENCE_TYPE),
+                        criteria.getObjectReferenceType());
+            }
+            if (Objects.nonNull(relevance)) {
+                orders.add(cb.desc(relevance));
+            }
+        }
+        orders.add(cb.desc(root.get(AbstractTraceableEntity_.MODIFICATION_DATE)));
+        orders.add(cb.desc(root.get(TraceableEntity_.ID)));
+        return orders;
+    }
+
+    /**
+     * @return the sum of the relevance so far, {@code null} for none, and the
+     *         trigram similarity of the lower-case value to the criterion
      */
-    private String stringPattern(String value) {
-        return (value.toLowerCase() + "%");
+    private static Expression<Float> addSimilarity(CriteriaBuilder cb, Expression<Float> relevance,
+            Path<String> path, String value) {
+        Expression<Float> similarity = cb.function("similarity", Float.class, cb.lower(path),
+                cb.literal(value.toLowerCase(Locale.ROOT)));
+        return Objects.isNull(relevance) ? similarity : cb.sum(relevance, similarity);
     }
 
-    private CriteriaQuery<Document> createSearchCriteriaQuery(DocumentSearchCriteria criteria) {
+    private CriteriaQuery<Document> createSearchCriteriaQuery(DocumentSearchCriteria criteria,
+            boolean fetchAssociations) {
 
         var entityManager = getEntityManager();
         var cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Document> cq = cb.createQuery(Document.class);
         Root<Document> root = cq.from(Document.class);
+        if (fetchAssociations) {
+            fetchToOneAssociations(root);
+        }
+        List<Predicate> predicates = createSearchCriteriaPredicates(cb, root, criteria);
+        cq.orderBy(createOrder(cb, root, criteria));
+
+        if (!predicates.isEmpty()) {
+            cq.where(cb.and(predicates.toArray(new Predicate[0])));
+        }
+
+        return cq;
+
+    }
+
+    /**
+     * Fetches the to-one associations which are mapped into the document details
+     * with the documents. The collections are loaded in batches, see
+     * {@link Document}.
+     */
+    private static void fetchToOneAssociations(Root<Document> root) {
+        root.fetch(Document_.CHANNEL, JoinType.LEFT);
+        root.fetch(Document_.TYPE, JoinType.LEFT);
+        root.fetch(Document_.SPECIFICATION, JoinType.LEFT);
+        root.fetch(Document_.RELATED_OBJECT, JoinType.LEFT);
+    }
+
+    /**
+     *
+     * @param cb the {@link CriteriaBuilder}
+     * @param root the {@link Document} root of the query
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @return the predicates of the given criteria
+     */
+    List<Predicate> createSearchCriteriaPredicates(CriteriaBuilder cb, Root<Document> root,
+            DocumentSearchCriteria criteria) {
         List<Predicate> predicates = new ArrayList<>();
-        cq.orderBy(cb.desc(root.get(AbstractTraceableEntity_.MODIFICATION_DATE)));
         if (Objects.nonNull(criteria.getId())) {
             predicates.add(cb.equal(root.get(TraceableEntity_.ID), criteria.getId()));
         }
         if (isNotEmpty(criteria.getName())) {
-            predicates.add(cb.like(cb.lower(root.get(Document_.NAME)), stringPattern(criteria.getName())));
+            predicates.add(cb.like(cb.lower(root.get(Document_.NAME)),
+                    stringPattern(criteria.getName(), criteria.getSearchMode()), LIKE_ESCAPE));
         }
-        if (!criteria.getLifeCycleState().isEmpty()) {
+        if (Objects.nonNull(criteria.getLifeCycleState()) && !criteria.getLifeCycleState().isEmpty()) {
             predicates.add(root.get(Document_.LIFE_CYCLE_STATE).in(criteria.getLifeCycleState()));
         }
-        if (!criteria.getDocumentTypeId().isEmpty()) {
+        if (Objects.nonNull(criteria.getDocumentTypeId()) && !criteria.getDocumentTypeId().isEmpty()) {
             predicates.add(root.get(Document_.TYPE).get(TraceableEntity_.ID).in(criteria.getDocumentTypeId()));
         }
         if (isNotEmpty(criteria.getChannelName())) {
             predicates.add(cb.equal(cb.lower(root.get(Document_.CHANNEL).get(Channel_.NAME)),
-                    criteria.getChannelName().toLowerCase()));
+                    criteria.getChannelName().toLowerCase(Locale.ROOT)));
         }
         if (Objects.nonNull(criteria.getStartDate())) {
             predicates.add(cb.greaterThanOrEqualTo(root.get(AbstractTraceableEntity_.CREATION_DATE),
@@ -155,20 +507,14 @@ public class DocumentDAO extends AbstractDAO<Document> {
         if (isNotEmpty(criteria.getObjectReferenceId())) {
             predicates.add(
                     cb.like(cb.lower(root.get(Document_.RELATED_OBJECT).get(RelatedObjectRef_.OBJECT_REFERENCE_ID)),
-                            stringPattern(criteria.getObjectReferenceId())));
+                            stringPattern(criteria.getObjectReferenceId(), criteria.getSearchMode()), LIKE_ESCAPE));
         }
         if (isNotEmpty(criteria.getObjectReferenceType())) {
             predicates.add(cb.like(
                     cb.lower(root.get(Document_.RELATED_OBJECT).get(RelatedObjectRef_.OBJECT_REFERENCE_TYPE)),
-                    stringPattern(criteria.getObjectReferenceType())));
+                    stringPattern(criteria.getObjectReferenceType(), criteria.getSearchMode()), LIKE_ESCAPE));
         }
-
-        if (!predicates.isEmpty()) {
-            cq.where(cb.and(predicates.toArray(new Predicate[0])));
-        }
-
-        return cq;
-
+        return predicates;
     }
 
     public List<Document> findAllDocumentsBySearchCriteria(DocumentSearchCriteria criteria) {
@@ -176,11 +522,70 @@ public class DocumentDAO extends AbstractDAO<Document> {
             throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
         }
         try {
-            CriteriaQuery<Document> cq = createSearchCriteriaQuery(criteria);
+            CriteriaQuery<Document> cq = createSearchCriteriaQuery(criteria, true);
             TypedQuery<Document> typedQuery = em.createQuery(cq);
             return typedQuery.getResultList();
         } catch (Exception exception) {
             throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_CRITERIA, exception);
         }
     }
+
+    /**
+     * Finds the ids of the documents matching the given
+     * {@link DocumentSearchCriteria} in ascending order. The paging properties of
+     * the criteria are ignored, the caller pages with the last id of the previous
+     * call instead.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @param afterId the last id of the previous page, {@code null} for the first
+     *        page
+     * @param limit the max. number of ids
+     * @return the document ids
+     */
+    public List<String> findDocumentIdsBySearchCriteria(DocumentSearchCriteria criteria, String afterId,
+            int limit) {
+        if (criteria == null) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
+        }
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<String> cq = cb.createQuery(String.class);
+            Root<Document> root = cq.from(Document.class);
+            List<Predicate> predicates = createSearchCriteriaPredicates(cb, root, criteria);
+            if (Objects.nonNull(afterId)) {
+                predicates.add(cb.greaterThan(root.get(TraceableEntity_.ID), afterId));
+            }
+            cq.select(root.get(TraceableEntity_.ID))
+                    .where(cb.and(predicates.toArray(new Predicate[0])))
+                    .orderBy(cb.asc(root.get(TraceableEntity_.ID)));
+            return em.createQuery(cq).setMaxResults(limit).getResultList();
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_CRITERIA, exception);
+        }
+    }
+
+    /**
+     * Streams the documents matching the given {@link DocumentSearchCriteria}. The
+     * rows are fetched from the database in chunks of the fetch size while the
+     * stream is consumed, which requires an active transaction. The documents are
+     * loaded read-only. The caller must close the stream.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @param fetchSize the number of rows fetched per database round trip
+     * @return the {@link Stream} of {@link Document}
+     */
+    public Stream<Document> streamAllDocumentsBySearchCriteria(DocumentSearchCriteria criteria, int fetchSize) {
+        if (criteria == null) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_SEARCH_CRITERIA_REQUIRED, new NullPointerException());
+        }
+        try {
+            CriteriaQuery<Document> cq = createSearchCriteriaQuery(criteria, true);
+            return em.createQuery(cq)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream();
+        } catch (Exception exception) {
+            throw new DAOException(ErrorKeys.ERROR_FIND_DOCUMENT_BY_CRITERIA, exception);
+        }
+    }
 }
@@ -1,13 +1,36 @@
 package org.onecx.document.management.domain.daos;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 
 import org.onecx.document.management.domain.models.entities.DocumentType;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
 
 /**
  * DocumentTypeDAO class.
  */
 @ApplicationScoped
 public class DocumentTypeDAO extends AbstractDAO<DocumentType> {
+
+    /**
+     * @param id the document type id
+     * @return whether a document type with the id exists
+     */
+    public boolean existsById(String id) {
+        var cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<DocumentType> root = cq.from(DocumentType.class);
+        cq.select(cb.count(root)).where(cb.equal(root.get(TraceableEntity_.ID), id));
+        return em.createQuery(cq).getSingleResult() > 0;
+    }
+
+    /**
+     * @param id the id of an existing document type
+     * @return a reference to the document type which is loaded on first access
+     */
+    public DocumentType getReference(String id) {
+        return em.getReference(DocumentType.class, id);
+    }
 }
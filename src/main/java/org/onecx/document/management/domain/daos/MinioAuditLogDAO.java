@@ -1,17 +1,31 @@
 package org.onecx.document.management.domain.daos;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
 import org.onecx.document.management.domain.models.entities.MinioAuditLog;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.exceptions.DAOException;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
 
 @ApplicationScoped
 public class MinioAuditLogDAO extends AbstractDAO<MinioAuditLog> {
 
+    public enum ErrorKeys {
+        ERROR_LOCK_RECORDS_AFTER_ID,
+        ERROR_DELETE_RECORDS;
+    }
+
     /**
      * executes a select query to return all records present in the MinioAuditLog
      * table
@@ -25,4 +39,53 @@ public class MinioAuditLogDAO extends AbstractDAO<MinioAuditLog> {
         TypedQuery<MinioAuditLog> typedQuery = em.createQuery(selectQuery);
         return typedQuery.getResultList();
     }
+
+    /**
+     * Selects and locks the next chunk of records ordered by id. Records locked by
+     * another transaction are skipped, so several pods share the work.
+     *
+     * @param afterId the last id of the previous chunk, {@code null} for the first
+     *        chunk
+     * @param limit the max. number of records
+     * @return the records with an id greater than afterId
+     */
+    public List<MinioAuditLog> lockRecordsAfterId(String afterId, int limit) {
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<MinioAuditLog> cq = cb.createQuery(MinioAuditLog.class);
+            Root<MinioAuditLog> root = cq.from(MinioAuditLog.class);
+            if (Objects.nonNull(afterId)) {
+                cq.where(cb.greaterThan(root.get(TraceableEntity_.ID), afterId));
+            }
+            cq.orderBy(cb.asc(root.get(TraceableEntity_.ID)));
+            return em.createQuery(cq)
+                    .setMaxResults(limit)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_LOCK_RECORDS_AFTER_ID, e);
+        }
+    }
+
+    /**
+     * Deletes the given records with one statement.
+     *
+     * @param records the records
+     */
+    public void deleteRecords(Collection<MinioAuditLog> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaDelete<MinioAuditLog> cd = cb.createCriteriaDelete(MinioAuditLog.class);
+            Root<MinioAuditLog> root = cd.from(MinioAuditLog.class);
+            cd.where(root.get(TraceableEntity_.ID).in(records.stream().map(MinioAuditLog::getId).toList()));
+            records.forEach(em::detach);
+            em.createQuery(cd).executeUpdate();
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_DELETE_RECORDS, e);
+        }
+    }
 }
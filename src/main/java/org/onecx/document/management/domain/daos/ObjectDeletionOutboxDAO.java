@@ -0,0 +1,116 @@
+package org.onecx.document.management.domain.daos;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.onecx.document.management.domain.models.entities.ObjectDeletionOutbox;
+import org.onecx.document.management.domain.models.entities.ObjectDeletionOutbox_;
+import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.exceptions.DAOException;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
+
+/**
+ * ObjectDeletionOutboxDAO class.
+ */
+@ApplicationScoped
+public class ObjectDeletionOutboxDAO extends AbstractDAO<ObjectDeletionOutbox> {
+
+    public enum ErrorKeys {
+        ERROR_ENQUEUE_OBJECT_DELETIONS,
+        ERROR_LOCK_DUE_OBJECT_DELETIONS,
+        ERROR_DELETE_OBJECT_DELETIONS,
+        ERROR_COUNT_OBJECT_DELETIONS;
+    }
+
+    /**
+     * Adds an entry per distinct key to the outbox in the current transaction.
+     * The entries are due immediately.
+     *
+     * @param keys the object names, {@code null} is ignored
+     */
+    public void enqueue(Collection<String> keys) {
+        try {
+            var now = LocalDateTime.now();
+            keys.stream().filter(Objects::nonNull).distinct().forEach(key -> {
+                var entry = new ObjectDeletionOutbox();
+                entry.setObjectKey(key);
+                entry.setNextAttemptAt(now);
+                em.persist(entry);
+            });
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_ENQUEUE_OBJECT_DELETIONS, e);
+        }
+    }
+
+    /**
+     * Selects and locks the entries which are due. Entries locked by another
+     * transaction are skipped, so several workers and pods drain the outbox
+     * without waiting for each other.
+     *
+     * @param now the current time
+     * @param limit the max. number of entries
+     * @return the due entries, the oldest first
+     */
+    public List<ObjectDeletionOutbox> lockDueEntries(LocalDateTime now, int limit) {
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<ObjectDeletionOutbox> cq = cb.createQuery(ObjectDeletionOutbox.class);
+            Root<ObjectDeletionOutbox> root = cq.from(ObjectDeletionOutbox.class);
+            cq.where(cb.lessThanOrEqualTo(root.get(ObjectDeletionOutbox_.NEXT_ATTEMPT_AT), now));
+            cq.orderBy(cb.asc(root.get(ObjectDeletionOutbox_.NEXT_ATTEMPT_AT)),
+                    cb.asc(root.get(TraceableEntity_.ID)));
+            return em.createQuery(cq)
+                    .setMaxResults(limit)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_LOCK_DUE_OBJECT_DELETIONS, e);
+        }
+    }
+
+    /**
+     * Deletes the given entries with one statement.
+     *
+     * @param entries the entries
+     */
+    public void deleteEntries(Collection<ObjectDeletionOutbox> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaDelete<ObjectDeletionOutbox> cd = cb.createCriteriaDelete(ObjectDeletionOutbox.class);
+            Root<ObjectDeletionOutbox> root = cd.from(ObjectDeletionOutbox.class);
+            cd.where(root.get(TraceableEntity_.ID).in(entries.stream().map(ObjectDeletionOutbox::getId).toList()));
+            entries.forEach(em::detach);
+            em.createQuery(cd).executeUpdate();
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_DELETE_OBJECT_DELETIONS, e);
+        }
+    }
+
+    /**
+     * @return the number of entries in the outbox
+     */
+    public long countEntries() {
+        try {
+            var cb = em.getCriteriaBuilder();
+            CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+            cq.select(cb.count(cq.from(ObjectDeletionOutbox.class)));
+            return em.createQuery(cq).getSingleResult();
+        } catch (Exception e) {
+            throw new DAOException(ErrorKeys.ERROR_COUNT_OBJECT_DELETIONS, e);
+        }
+    }
+}
@@ -1,13 +1,36 @@
 package org.onecx.document.management.domain.daos;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 
 import org.onecx.document.management.domain.models.entities.SupportedMimeType;
 import org.tkit.quarkus.jpa.daos.AbstractDAO;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
 
 /**
  * SupportedMimeTypeDAO class.
  */
 @ApplicationScoped
 public class SupportedMimeTypeDAO extends AbstractDAO<SupportedMimeType> {
+
+    /**
+     * @param id the supported mime-type id
+     * @return whether a supported mime-type with the id exists
+     */
+    public boolean existsById(String id) {
+        var cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<SupportedMimeType> root = cq.from(SupportedMimeType.class);
+        cq.select(cb.count(root)).where(cb.equal(root.get(TraceableEntity_.ID), id));
+        return em.createQuery(cq).getSingleResult() > 0;
+    }
+
+    /**
+     * @param id the id of an existing supported mime-type
+     * @return a reference to the supported mime-type which is loaded on first access
+     */
+    public SupportedMimeType getReference(String id) {
+        return em.getReference(SupportedMimeType.class, id);
+    }
 }
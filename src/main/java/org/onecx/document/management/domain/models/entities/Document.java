@@ -15,10 +15,10 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
 import org.onecx.document.management.domain.models.enums.LifeCycleState;
 import org.tkit.quarkus.jpa.models.TraceableEntity;
 
@@ -26,14 +26,18 @@ import lombok.Getter;
 import lombok.Setter;
 
 /**
- * The Document entity.
+ * The Document entity. Its collections are loaded in batches of up to the max.
+ * page size of the document search, so mapping a page of documents needs one
+ * query per collection instead of one per document and collection.
  */
 @Getter
 @Setter
 @Entity
 @Table(name = "DM_DOCUMENT")
-@NamedEntityGraph(name = "Document.loadAll", includeAllAttributes = true)
 public class Document extends TraceableEntity {
+
+    private static final int BATCH_SIZE = 200;
+
     /**
      * Name of the document.
      */
@@ -58,6 +62,7 @@ public class Document extends TraceableEntity {
     /**
      * The set of document tags.
      */
+    @BatchSize(size = BATCH_SIZE)
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "DM_DOCUMENT_TAGS")
     @Column(name = "TAGS")
@@ -89,30 +94,35 @@ public class Document extends TraceableEntity {
     /**
      * The document relationship.
      */
+    @BatchSize(size = BATCH_SIZE)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "DOCUMENT_GUID")
     private Set<DocumentRelationship> documentRelationships = new HashSet<>();
     /**
      * The document characteristic.
      */
+    @BatchSize(size = BATCH_SIZE)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "DOCUMENT_GUID")
     private Set<DocumentCharacteristic> characteristics = new HashSet<>();
     /**
      * The related party reference.
      */
+    @BatchSize(size = BATCH_SIZE)
     @OneToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @JoinColumn(name = "DOCUMENT_GUID")
     private Set<RelatedPartyRef> relatedParties = new HashSet<>();
     /**
      * The category.
      */
+    @BatchSize(size = BATCH_SIZE)
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @JoinTable(name = "DOCUMENT_CATEGORY", joinColumns = @JoinColumn(name = "DOCUMENT_GUID"), inverseJoinColumns = @JoinColumn(name = "CATEGORY_GUID"))
     private Set<Category> categories = new HashSet<>();
     /**
      * The attachment.
      */
+    @BatchSize(size = BATCH_SIZE)
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "DOCUMENT_GUID")
     private Set<Attachment> attachments = new HashSet<>();
@@ -0,0 +1,44 @@
+package org.onecx.document.management.domain.models.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import org.tkit.quarkus.jpa.models.TraceableEntity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ObjectDeletionOutbox Entity Class
+ * An object of the object storage which has to be deleted. The entry is
+ * written in the same transaction which deleted the rows referencing the
+ * object, so the object is deleted if and only if the transaction committed.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "DM_OBJECT_DELETION_OUTBOX")
+public class ObjectDeletionOutbox extends TraceableEntity {
+
+    /**
+     * name of the object in the bucket
+     */
+    @Column(name = "OBJECT_KEY", nullable = false)
+    private String objectKey;
+
+    /**
+     * number of failed deletion attempts
+     */
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+
+    /**
+     * the entry is not claimed by the worker before this time
+     */
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+}
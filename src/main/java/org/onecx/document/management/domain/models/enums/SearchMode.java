@@ -0,0 +1,15 @@
+package org.onecx.document.management.domain.models.enums;
+
+/**
+ * How the text criteria of the document search match.
+ */
+public enum SearchMode {
+    /**
+     * The value starts with the criterion.
+     */
+    PREFIX,
+    /**
+     * The value contains the criterion.
+     */
+    CONTAINS
+}
@@ -0,0 +1,13 @@
+package org.onecx.document.management.domain.models.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * The object storage state of an attachment, without loading the entity.
+ *
+ * @param attachmentId the attachment id which is the object name
+ * @param uploaded whether the file was uploaded to the object storage
+ * @param modificationDate the last modification date of the attachment
+ */
+public record AttachmentObject(String attachmentId, boolean uploaded, LocalDateTime modificationDate) {
+}
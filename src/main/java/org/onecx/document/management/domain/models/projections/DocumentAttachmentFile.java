@@ -0,0 +1,18 @@
+package org.onecx.document.management.domain.models.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * The file of an uploaded attachment together with its document, without
+ * loading the entities.
+ *
+ * @param documentId the document id
+ * @param documentName the document name
+ * @param attachmentId the attachment id which is the object name
+ * @param fileName the file name
+ * @param creationDate the creation date of the attachment
+ * @param mimeType the name of the supported mime type
+ */
+public record DocumentAttachmentFile(String documentId, String documentName, String attachmentId, String fileName,
+        LocalDateTime creationDate, String mimeType) {
+}
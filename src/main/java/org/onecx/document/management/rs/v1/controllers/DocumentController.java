@@ -1,49 +1,58 @@
 package org.onecx.document.management.rs.v1.controllers;
 
 import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.PROCEED;
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.attribute.FileTime;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
 
-import org.apache.commons.io.IOUtils;
 import org.jboss.resteasy.reactive.server.multipart.MultipartFormDataInput;
 import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
 import org.onecx.document.management.domain.daos.AttachmentDAO;
-import org.onecx.document.management.domain.daos.ChannelDAO;
 import org.onecx.document.management.domain.daos.DocumentDAO;
-import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
 import org.onecx.document.management.domain.daos.StorageUploadAuditDAO;
 import org.onecx.document.management.domain.models.entities.*;
 import org.onecx.document.management.rs.v1.RestException;
 import org.onecx.document.management.rs.v1.mappers.DocumentMapper;
+import org.onecx.document.management.rs.v1.models.PageResultDTO;
+import org.onecx.document.management.rs.v1.services.AttachmentZipWriter;
+import org.onecx.document.management.rs.v1.services.DocumentCursor;
+import org.onecx.document.management.rs.v1.services.DocumentExportService;
 import org.onecx.document.management.rs.v1.services.DocumentService;
-import org.tkit.quarkus.jpa.daos.PageResult;
+import org.onecx.document.management.rs.v1.services.DocumentStreamService;
+import org.onecx.document.management.rs.v1.services.DocumentUpdateResult;
+import org.onecx.document.management.rs.v1.services.DownloadConditions;
+import org.onecx.document.management.rs.v1.services.MinioAuditLogSweepService;
+import org.onecx.document.management.rs.v1.services.ObjectDeletionOutboxService;
+import org.onecx.document.management.rs.v1.services.ReferenceDataCache;
+import org.onecx.document.management.rs.v1.services.ZipCompression;
+import org.onecx.document.management.rs.v1.services.ZipItem;
 
 import gen.org.onecx.document.management.rs.v1.DocumentControllerV1Api;
+import gen.org.onecx.document.management.rs.v1.model.DocumentAttachmentsExportDTO;
 import gen.org.onecx.document.management.rs.v1.model.DocumentCreateUpdateDTO;
+import gen.org.onecx.document.management.rs.v1.model.DocumentDetailDTO;
 import gen.org.onecx.document.management.rs.v1.model.DocumentResponseDTO;
 import gen.org.onecx.document.management.rs.v1.model.DocumentSearchCriteriaDTO;
 import gen.org.onecx.document.management.rs.v1.model.LifeCycleStateDTO;
+import gen.org.onecx.document.management.rs.v1.model.SearchModeDTO;
 import io.minio.errors.*;
 import io.quarkus.logging.Log;
 import io.quarkus.scheduler.Scheduled;
@@ -54,28 +63,48 @@ public class DocumentController implements DocumentControllerV1Api {
     @Inject
     DocumentDAO documentDAO;
 
-    @Inject
-    ChannelDAO channelDAO;
-
     @Inject
     AttachmentDAO attachmentDAO;
 
     @Inject
     StorageUploadAuditDAO storageUploadAuditDAO;
 
-    @Inject
-    MinioAuditLogDAO minioAuditLogDAO;
-
     @Inject
     DocumentMapper documentMapper;
 
     @Inject
     DocumentService documentService;
 
+    @Inject
+    AttachmentZipWriter attachmentZipWriter;
+
+    @Inject
+    DocumentExportService documentExportService;
+
+    @Inject
+    DocumentStreamService documentStreamService;
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
+    @Inject
+    MinioAuditLogSweepService minioAuditLogSweepService;
+
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
+    @Context
+    HttpHeaders httpHeaders;
+
     public static final DateTimeFormatter CUSTOM_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
+    private static final int MULTI_STATUS = 207;
+
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
     // The response from the download attachment zip API will have this as the
     // Content-Disposition header value.
+
     public static final String ATTACHMENT_ZIP_CONTENT_DISPOSITION_HEADER = "attachment; filename=\"attachments.zip\"";
 
     private static final String CLASS_NAME = "DocumentController";
@@ -93,23 +122,15 @@ public class DocumentController implements DocumentControllerV1Api {
 
     /**
      * This scheduler gets triggered at every Sunday at 23:00 hours
-     * It calls the getAllRecords method of MinioAuditLogDAO class
-     * If the returned list is not null then all objects are iterated over a loop
-     * and
-     * it calls the deleteFileInAttachmentAsync method to delete object from Minio
-     * storage
-     * it then deletes that specific record from the MinioAuditLog table
+     * The MinioAuditLog holds the objects which the object deletion outbox gave
+     * up on after its max. attempts.
+     * It sweeps the MinioAuditLog in chunks, each in its own transaction, and
+     * deletes the records whose object could be deleted from Minio storage, the
+     * others are retried next time.
      */
-    @Transactional
-    @Scheduled(cron = "0 0 23 ? * SUN", concurrentExecution = PROCEED)
+    @Scheduled(cron = "0 0 23 ? * SUN", concurrentExecution = SKIP)
     public void deleteAllRecordsFromMinioAuditLog() {
-        List<MinioAuditLog> minioAuditLogAllRecords = minioAuditLogDAO.getAllRecords();
-        if (!Objects.isNull(minioAuditLogAllRecords)) {
-            minioAuditLogAllRecords.stream().forEach(auditRecord -> {
-                documentService.deleteFileInAttachmentAsync(auditRecord.getAttachmentId());
-                minioAuditLogDAO.delete(auditRecord);
-            });
-        }
+        minioAuditLogSweepService.sweep();
     }
 
     @Override
@@ -127,9 +148,10 @@ public class DocumentController implements DocumentControllerV1Api {
 
     @Override
     @Transactional
-    public Response getDocumentByCriteria(String channelName, String createdBy, String endDate, String id, String name,
-            String objectReferenceId, String objectReferenceType, Integer page, Integer size, String startDate,
-            List<LifeCycleStateDTO> state, List<String> typeId) {
+    public Response getDocumentByCriteria(String channelName, String createdBy, String cursor, String endDate, String id,
+            String name, String objectReferenceId, String objectReferenceType, Boolean orderByRelevance, Integer page,
+            SearchModeDTO searchMode, Integer size, String startDate, List<LifeCycleStateDTO> state,
+            List<String> typeId, Boolean withCount) {
         Log.info(CLASS_NAME, "Entered getDocumentByCriteria method", null);
         DocumentSearchCriteriaDTO criteriaDTO = new DocumentSearchCriteriaDTO();
         criteriaDTO.setChannelName(channelName);
@@ -139,6 +161,8 @@ public class DocumentController implements DocumentControllerV1Api {
         criteriaDTO.setName(name);
         criteriaDTO.setObjectReferenceId(objectReferenceId);
         criteriaDTO.setObjectReferenceType(objectReferenceType);
+        criteriaDTO.setSearchMode(searchMode);
+        criteriaDTO.setOrderByRelevance(orderByRelevance);
         Optional.ofNullable(page).ifPresent(criteriaDTO::setPageNumber);
         Optional.ofNullable(size).ifPresent(criteriaDTO::setPageSize);
         criteriaDTO.setStartDate(startDate);
@@ -154,24 +178,67 @@ public class DocumentController implements DocumentControllerV1Api {
 
             criteria.setEndDate(LocalDateTime.parse(criteriaDTO.getEndDate(), CUSTOM_DATE_TIME_FORMATTER));
         }
-        PageResult<Document> documents = documentDAO.findBySearchCriteria(criteria);
+        criteria.setWithCount(!Boolean.FALSE.equals(withCount));
+        if (Objects.nonNull(cursor) && !cursor.isEmpty()) {
+            if (criteria.isOrderByRelevance()) {
+                throw new RestException(Response.Status.BAD_REQUEST, Response.Status.BAD_REQUEST,
+                        "A cursor cannot be combined with the order by relevance");
+            }
+            DocumentCursor after = decodeCursor(cursor);
+            criteria.setAfterModificationDate(after.modificationDate());
+            criteria.setAfterId(after.id());
+        }
+        PageResultDTO<DocumentDetailDTO> result = findDocumentPage(criteria);
         Log.info(CLASS_NAME, "Exited getDocumentByCriteria method", null);
-        return Response.ok(documentMapper.mapToPageResultDTO(documents))
+        return Response.ok(result)
                 .build();
     }
 
+    /**
+     * Loads one document more than the page size to know if there is a next
+     * page, and returns the cursor of the last document of the page in this case.
+     * A page selected by cursor has no page number.
+     */
+    private PageResultDTO<DocumentDetailDTO> findDocumentPage(DocumentSearchCriteria criteria) {
+        List<Document> documents = documentDAO.findSliceBySearchCriteria(criteria);
+        int pageSize = Objects.requireNonNullElse(criteria.getPageSize(), DocumentDAO.DEFAULT_PAGE_SIZE);
+        boolean hasNext = documents.size() > pageSize;
+        List<Document> pageDocuments = hasNext ? documents.subList(0, pageSize) : documents;
+        PageResultDTO<DocumentDetailDTO> result = new PageResultDTO<>();
+        result.setStream(documentMapper.mapDocuments(pageDocuments));
+        result.setNumber(Objects.nonNull(criteria.getAfterId()) ? -1
+                : Objects.requireNonNullElse(criteria.getPageNumber(), 0));
+        result.setSize(pageSize);
+        if (criteria.isWithCount()) {
+            long totalElements = documentDAO.countBySearchCriteria(criteria);
+            result.setTotalElements(totalElements);
+            result.setTotalPages(pageSize == 0 ? 0 : (totalElements + pageSize - 1) / pageSize);
+        } else {
+            /* Unknown without counting */
+            result.setTotalElements(-1);
+            result.setTotalPages(-1);
+        }
+        /* The cursor follows the order by modification date */
+        if (hasNext && !criteria.isOrderByRelevance()) {
+            Document last = pageDocuments.get(pageDocuments.size() - 1);
+            result.setNextCursor(new DocumentCursor(last.getModificationDate(), last.getId()).encode());
+        }
+        return result;
+    }
+
+    private static DocumentCursor decodeCursor(String cursor) {
+        try {
+            return DocumentCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new RestException(Response.Status.BAD_REQUEST, Response.Status.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
     @Override
     @Transactional
     public Response deleteDocumentById(String id) {
         Log.info(CLASS_NAME, "Entered deleteDocumentById method", null);
-        List<String> listOfFilesIdToBeDeleted = new ArrayList<>();
-        var document = documentDAO.findById(id);
-        if (Objects.isNull(document)) {
-            throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND, getDocumentNotFoundMsg(id));
-        }
-        listOfFilesIdToBeDeleted.addAll(documentService.getFilesIdToBeDeletedInDocument(document));
-        documentDAO.delete(document);
-        listOfFilesIdToBeDeleted.stream().forEach(eachFileId -> documentService.asyncDeleteForAttachments(eachFileId));
+        deleteDocuments(List.of(id));
         Log.info(CLASS_NAME, "Exited deleteDocumentById method", null);
         return Response.status(Response.Status.NO_CONTENT).build();
     }
@@ -231,35 +298,34 @@ public class DocumentController implements DocumentControllerV1Api {
     }
 
     @Override
-    public Response getAllChannels() {
+    public Response getAllChannels(String ifNoneMatch) {
         Log.info(CLASS_NAME, "Entered getAllChannels method", null);
         // List of unique alphabetically sorted channel names ignoring cases
-        List<Channel> uniqueSortedChannelNames = channelDAO.findAllSortedByNameAsc()
-                .filter(distinctByKey(c -> c.getName().toLowerCase(Locale.ROOT)))
-                .toList();
+        var channelList = referenceDataCache.findAllChannels();
+        String etag = "\"" + channelList.etag() + "\"";
         Log.info(CLASS_NAME, "Exited getAllChannels method", null);
+        if (channelList.isNotModified(ifNoneMatch)) {
+            return Response.notModified().header(HttpHeaders.ETAG, etag).build();
+        }
         return Response.status(Response.Status.OK)
-                .entity(documentMapper.mapChannels(uniqueSortedChannelNames))
+                .header(HttpHeaders.ETAG, etag)
+                .entity(channelList.channels())
                 .build();
     }
 
-    private static <T> Predicate<T> distinctByKey(Function<? super T, ?> keyExtractor) {
-        Log.info(CLASS_NAME, "Entered distinctByKey method", null);
-        Set<Object> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
-        Log.info(CLASS_NAME, "Exited distinctByKey method", null);
-        return t -> seen.add(keyExtractor.apply(t));
-    }
-
     @Override
-    public Response getFile(String attachmentId) {
+    public Response getFile(String attachmentId, String range, String ifRange, String ifNoneMatch,
+            String ifModifiedSince) {
         Log.info(CLASS_NAME, "Entered getFile method", null);
         var attachment = attachmentDAO.findById(attachmentId);
         if (Objects.isNull(attachment)) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        try (InputStream object = documentService.getObjectFromObjectStore(attachmentId)) {
+        try {
+            var response = documentService.downloadAttachmentFile(attachmentId,
+                    new DownloadConditions(range, ifRange, ifNoneMatch, ifModifiedSince));
             Log.info(CLASS_NAME, "Exited getFile method", null);
-            return Response.ok(object)
+            return response
                     .header("Content-Disposition", String.format("attachment;filename=%s", attachment.getFileName()))
                     .build();
         } catch (ServerException | InsufficientDataException | ErrorResponseException | IOException | NoSuchAlgorithmException
@@ -270,8 +336,11 @@ public class DocumentController implements DocumentControllerV1Api {
     }
 
     @Override
-    public Response getAllDocumentAttachmentsAsZip(String documentId, String clientTimezone) {
+    public Response getAllDocumentAttachmentsAsZip(String documentId, String clientTimezone, String compression) {
         Log.info(CLASS_NAME, "Entered getAllDocumentAttachmentsAsZip method", null);
+        ZipCompression zipCompression = ZipCompression.fromValue(compression);
+        if (Objects.isNull(zipCompression))
+            return Response.status(Response.Status.BAD_REQUEST).build();
         try {
             /* Retrieve the document by its ID */
             var document = documentDAO.findById(documentId);
@@ -283,80 +352,82 @@ public class DocumentController implements DocumentControllerV1Api {
             if (Objects.isNull(document))
                 return Response.status(Response.Status.BAD_REQUEST).build();
 
-            /* Retrieve the attachment details of this document */
-            Set<Attachment> documentAttachmentSet = document.getAttachments().stream()
-                    .filter(Attachment::getStorageUploadStatus).collect(Collectors.toSet());
+            /*
+             * Retrieve the attachment details of this document, ordered by file name so
+             * that the entries of the zip are deterministic
+             */
+            List<Attachment> documentAttachments = document.getAttachments().stream()
+                    .filter(Objects::nonNull)
+                    .filter(Attachment::getStorageUploadStatus)
+                    .sorted(Comparator.comparing(Attachment::getFileName, Comparator.nullsLast(String::compareTo))
+                            .thenComparing(Attachment::getId))
+                    .toList();
 
             /*
              * If the document has no attachments return a 204 error because there is no
              * content to return.
              */
-            if (Objects.isNull(documentAttachmentSet) || documentAttachmentSet.isEmpty())
+            if (documentAttachments.isEmpty())
                 return Response.status(Response.Status.NO_CONTENT).build();
 
-            /* Code to create a zip file containing all the attachment files */
-            StreamingOutput stream = output -> {
+            ZoneId clientZoneId = getClientZoneId(clientTimezone);
+            List<ZipItem> zipItems = documentAttachments.stream()
+                    .map(attachment -> new ZipItem(attachment.getFileName(), attachment.getId(),
+                            ZipItem.fileTime(attachment.getCreationDate(), clientZoneId),
+                            Objects.nonNull(attachment.getMimeType()) ? attachment.getMimeType().getName() : null))
+                    .toList();
 
-                /*
-                 * Use ZipOutputStream to create the zip and compress the its contents. This
-                 * reduces the size of the zip file and saves bandwidth and data while
-                 * transmitting over the internet. We are using the default compression level
-                 * because it is a good balance between file size and compression speed.
-                 */
-                try (var zip = new ZipOutputStream(output)) {
-
-                    /* Iterate over the set of attachments of the document using Java Streams */
-                    documentAttachmentSet.stream()
-                            .filter(Objects::nonNull)
-                            .forEach(attachment -> {
-                                try {
-
-                                    /* Download the attachment file from minio */
-                                    InputStream object = documentService
-                                            .getObjectFromObjectStore(
-                                                    attachment.getId());
-
-                                    /*
-                                     * Add the attachment file into the zip with the
-                                     * same filename
-                                     */
-                                    var entry = new ZipEntry(
-                                            attachment.getFileName());
-                                    entry.setSize(object.available());
-                                    ZoneId clientZoneId = (clientTimezone != null && !clientTimezone.isEmpty())
-                                            ? ZoneId.of(clientTimezone)
-                                            : ZoneId.of("UTC");
-                                    LocalDateTime attachmentDateTime = attachment.getCreationDate();
-                                    FileTime fileTime;
-                                    if (attachmentDateTime != null)
-                                        fileTime = FileTime.from(attachmentDateTime.atZone(clientZoneId).toInstant());
-                                    else
-                                        fileTime = FileTime.from(LocalDateTime.now().atZone(clientZoneId).toInstant());
-                                    entry.setCreationTime(fileTime);
-                                    entry.setLastModifiedTime(fileTime);
-                                    zip.putNextEntry(entry);
-                                    IOUtils.copy(object, zip);
-                                    zip.closeEntry();
-                                } catch (Exception e) {
-                                    /*
-                                     * If the attachment file could not be retrieved,
-                                     * throw an
-                                     * interal server error RestException.
-                                     */
-                                    throw new RestException(
-                                            Response.Status.INTERNAL_SERVER_ERROR,
-                                            Response.Status.INTERNAL_SERVER_ERROR,
-                                            "Failed to download file", e);
-                                }
-                            });
-                    zip.finish();
-                }
-            };
             Log.info(CLASS_NAME, "Exited getAllDocumentAttachmentsAsZip method", null);
-            return Response.ok(stream)
-                    .header("Content-Disposition", ATTACHMENT_ZIP_CONTENT_DISPOSITION_HEADER)
-                    .type("application/zip")
+            return createZipResponse(zipItems.iterator(), zipCompression);
+        } catch (Exception e) {
+            /* Return an internal server error to the client if any issue occurs */
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(e)
+                    .type(MediaType.APPLICATION_JSON)
                     .build();
+        }
+
+    }
+
+    @Override
+    public Response exportDocumentAttachmentsAsZip(String clientTimezone, String compression,
+            DocumentAttachmentsExportDTO documentAttachmentsExportDTO) {
+        Log.info(CLASS_NAME, "Entered exportDocumentAttachmentsAsZip method", null);
+        ZipCompression zipCompression = ZipCompression.fromValue(compression);
+        if (Objects.isNull(zipCompression) || Objects.isNull(documentAttachmentsExportDTO))
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        List<String> documentIds = Optional.ofNullable(documentAttachmentsExportDTO.getDocumentIds())
+                .orElse(List.of()).stream().filter(Objects::nonNull).toList();
+        DocumentSearchCriteriaDTO criteriaDTO = documentAttachmentsExportDTO.getCriteria();
+        if (documentIds.isEmpty() && Objects.isNull(criteriaDTO))
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        try {
+            ZoneId clientZoneId = getClientZoneId(clientTimezone);
+            Iterator<ZipItem> zipItems;
+            if (!documentIds.isEmpty()) {
+                zipItems = documentExportService.zipItemsOfDocuments(documentIds, clientZoneId);
+            } else {
+                DocumentSearchCriteria criteria = documentMapper.map(criteriaDTO);
+                if (Objects.nonNull(criteriaDTO.getStartDate()) && !criteriaDTO.getStartDate().isEmpty()) {
+                    criteria.setStartDate(LocalDateTime.parse(criteriaDTO.getStartDate(), CUSTOM_DATE_TIME_FORMATTER));
+                }
+                if (Objects.nonNull(criteriaDTO.getEndDate()) && !criteriaDTO.getEndDate().isEmpty()) {
+                    criteria.setEndDate(LocalDateTime.parse(criteriaDTO.getEndDate(), CUSTOM_DATE_TIME_FORMATTER));
+                }
+                zipItems = documentExportService.zipItemsOfDocuments(criteria, clientZoneId);
+            }
+
+            /*
+             * Only the first page is loaded here, if no document has an uploaded file
+             * there is no content to return.
+             */
+            if (!zipItems.hasNext())
+                return Response.status(Response.Status.NO_CONTENT).build();
+
+            Log.info(CLASS_NAME, "Exited exportDocumentAttachmentsAsZip method", null);
+            return createZipResponse(zipItems, zipCompression);
+        } catch (DateTimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
         } catch (Exception e) {
             /* Return an internal server error to the client if any issue occurs */
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -364,7 +435,42 @@ public class DocumentController implements DocumentControllerV1Api {
                     .type(MediaType.APPLICATION_JSON)
                     .build();
         }
+    }
+
+    private static ZoneId getClientZoneId(String clientTimezone) {
+        return (clientTimezone != null && !clientTimezone.isEmpty())
+                ? ZoneId.of(clientTimezone)
+                : ZoneId.of("UTC");
+    }
+
+    private Response createZipResponse(Iterator<ZipItem> zipItems, ZipCompression zipCompression) {
+        /* Code to create a zip file containing all the attachment files */
+        StreamingOutput stream = output -> {
 
+            /*
+             * Use ZipOutputStream to create the zip and compress its text-like contents.
+             * Files which are already compressed, like PDFs and images, are stored as they
+             * are because compressing them again costs CPU without reducing the size. The
+             * attachment files are downloaded ahead while the previous ones are written.
+             */
+            try (var zip = new ZipOutputStream(output)) {
+                attachmentZipWriter.write(zipItems, zip, zipCompression);
+                zip.finish();
+            } catch (IOException e) {
+                /*
+                 * If the attachment file could not be retrieved, throw an interal server
+                 * error RestException.
+                 */
+                throw new RestException(
+                        Response.Status.INTERNAL_SERVER_ERROR,
+                        Response.Status.INTERNAL_SERVER_ERROR,
+                        "Failed to download file", e);
+            }
+        };
+        return Response.ok(stream)
+                .header("Content-Disposition", ATTACHMENT_ZIP_CONTENT_DISPOSITION_HEADER)
+                .type("application/zip")
+                .build();
     }
 
     @Override
@@ -372,7 +478,7 @@ public class DocumentController implements DocumentControllerV1Api {
     public Response deleteFilesInBulk(List<String> attachmentIds) {
         Log.info(CLASS_NAME, "Entered deleteFilesInBulk method", null);
         documentService.updateAttachmentStatusInBulk(attachmentIds);
-        attachmentIds.stream().forEach(attachmentId -> documentService.asyncDeleteForAttachments(attachmentId));
+        objectDeletionOutboxService.enqueue(attachmentIds);
         Log.info(CLASS_NAME, "Exited deleteFilesInBulk method", null);
         return Response.noContent().build();
     }
@@ -381,25 +487,20 @@ public class DocumentController implements DocumentControllerV1Api {
     @Transactional
     public Response bulkUpdateDocument(List<DocumentCreateUpdateDTO> documentCreateUpdateDTO) {
         Log.info(CLASS_NAME, "Entered bulkUpdateDocument method", null);
-        Iterator<DocumentCreateUpdateDTO> it = documentCreateUpdateDTO.listIterator();
-        List<Document> document1 = new ArrayList<>();
-        while (it.hasNext()) {
-            DocumentCreateUpdateDTO dto1 = it.next();
-            var document = documentDAO.findDocumentById(dto1.getId());
-            if (Objects.isNull(document)) {
-                throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND,
-                        getDocumentNotFoundMsg(dto1.getId()));
-            }
-            try {
-                document = documentService.updateDocument(document, dto1);
-            } catch (Exception e) {
-                Log.error(e);
-            }
-            document1.add(document);
+        List<DocumentUpdateResult> results = documentService.updateDocumentsInBulk(documentCreateUpdateDTO);
+        int status;
+        if (results.stream().allMatch(DocumentUpdateResult::isUpdated)) {
+            status = Response.Status.CREATED.getStatusCode();
+        } else if (results.stream().anyMatch(DocumentUpdateResult::isUpdated)) {
+            status = MULTI_STATUS;
+        } else if (results.stream().allMatch(result -> result.status() == DocumentUpdateResult.Status.NOT_FOUND)) {
+            status = Response.Status.NOT_FOUND.getStatusCode();
+        } else {
+            status = Response.Status.BAD_REQUEST.getStatusCode();
         }
         Log.info(CLASS_NAME, "Exited bulkUpdateDocument method", null);
-        return Response.status(Response.Status.CREATED)
-                .entity(documentMapper.mapDetailBulk(documentDAO.update(document1.stream())))
+        return Response.status(status)
+                .entity(documentMapper.mapBulkUpdateResults(results))
                 .build();
     }
 
@@ -407,25 +508,22 @@ public class DocumentController implements DocumentControllerV1Api {
     @Transactional
     public Response deleteBulkDocuments(List<String> requestBody) {
         Log.info(CLASS_NAME, "Entered deleteBulkDocuments method", null);
-        List<String> listOfFilesIdToBeDeleted = new ArrayList<>();
-        Iterator<String> itr = requestBody.iterator();
-        while (itr.hasNext()) {
-            String currentDocId = itr.next();
-            var document = documentDAO.findById(currentDocId);
-            if (Objects.isNull(document)) {
-                throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND,
-                        getDocumentNotFoundMsg(currentDocId));
-            }
-            listOfFilesIdToBeDeleted.addAll(documentService.getFilesIdToBeDeletedInDocument(document));
-            documentDAO.delete(document);
-            listOfFilesIdToBeDeleted.stream().forEach(eachFileId -> documentService.asyncDeleteForAttachments(eachFileId));
-        }
+        deleteDocuments(requestBody);
         Log.info(CLASS_NAME, "Exited deleteBulkDocuments method", null);
         return Response.status(Response.Status.NO_CONTENT).build();
     }
 
+    /**
+     * Deletes the documents if all of them exist, otherwise nothing is deleted.
+     */
+    private void deleteDocuments(List<String> ids) {
+        documentDAO.findMissingIds(ids).stream().findFirst().ifPresent(id -> {
+            throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND, getDocumentNotFoundMsg(id));
+        });
+        documentService.deleteDocuments(ids);
+    }
+
     @Override
-    @Transactional
     public Response showAllDocumentsByCriteria(String channelName, String createdBy, String endDate, String id, String name,
             String objectReferenceId, String objectReferenceType, Integer page, Integer size, String startDate,
             List<LifeCycleStateDTO> state, List<String> typeId) {
@@ -452,9 +550,17 @@ public class DocumentController implements DocumentControllerV1Api {
 
             criteria.setEndDate(LocalDateTime.parse(criteriaDTO.getEndDate(), CUSTOM_DATE_TIME_FORMATTER));
         }
-        List<Document> documents = documentDAO.findAllDocumentsBySearchCriteria(criteria);
+        /*
+         * The documents are written while they are read from the database, as JSON
+         * array or, if requested, as newline delimited JSON.
+         */
+        boolean ndjson = httpHeaders.getAcceptableMediaTypes().stream()
+                .anyMatch(mediaType -> NDJSON.getType().equalsIgnoreCase(mediaType.getType())
+                        && NDJSON.getSubtype().equalsIgnoreCase(mediaType.getSubtype()));
+        StreamingOutput stream = output -> documentStreamService.writeDocuments(criteria, output, ndjson);
         Log.info(CLASS_NAME, "Exited showAllDocumentsByCriteria method", null);
-        return Response.ok(documentMapper.mapDocuments(documents))
+        return Response.ok(stream)
+                .type(ndjson ? NDJSON : MediaType.APPLICATION_JSON_TYPE)
                 .build();
     }
 
@@ -12,6 +12,7 @@ import org.onecx.document.management.domain.daos.DocumentDAO;
 import org.onecx.document.management.domain.daos.DocumentSpecificationDAO;
 import org.onecx.document.management.rs.v1.RestException;
 import org.onecx.document.management.rs.v1.mappers.DocumentSpecificationMapper;
+import org.onecx.document.management.rs.v1.services.ReferenceDataCache;
 
 import gen.org.onecx.document.management.rs.v1.DocumentSpecificationControllerV1Api;
 import gen.org.onecx.document.management.rs.v1.model.DocumentSpecificationCreateUpdateDTO;
@@ -32,6 +33,9 @@ public class DocumentSpecificationController implements DocumentSpecificationCon
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
     private static final String CLASS_NAME = "DocumentSpecificationController";
 
     @Override
@@ -45,6 +49,7 @@ public class DocumentSpecificationController implements DocumentSpecificationCon
         }
         var documentSpecification = documentSpecificationDAO
                 .create(documentSpecificationMapper.map(documentSpecificationCreateUpdateDTO));
+        referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_SPECIFICATION, documentSpecification.getId());
         Log.info(CLASS_NAME, "Exited createDocumentSpecification method", null);
         return Response.status(Response.Status.CREATED)
                 .entity(documentSpecificationMapper.mapToDTO(documentSpecification))
@@ -70,9 +75,7 @@ public class DocumentSpecificationController implements DocumentSpecificationCon
         Log.info(CLASS_NAME, "Entered getAllDocumentSpecifications method", null);
         Log.info(CLASS_NAME, "Exited getAllDocumentSpecifications method", null);
         return Response.status(Response.Status.OK)
-                .entity(documentSpecificationMapper
-                        .findAllDocumentSpecifications(documentSpecificationDAO.findAll()
-                                .toList()))
+                .entity(referenceDataCache.findAllDocumentSpecifications())
                 .build();
     }
 
@@ -88,6 +91,7 @@ public class DocumentSpecificationController implements DocumentSpecificationCon
                                 + ". It is assigned to the document.");
             }
             entityManager.remove(documentSpecification);
+            referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_SPECIFICATION, id);
             Log.info(CLASS_NAME, "Exited deleteDocumentSpecificationById method",
                     null);
             return Response.status(Response.Status.NO_CONTENT).build();
@@ -107,6 +111,7 @@ public class DocumentSpecificationController implements DocumentSpecificationCon
                     getSpecificationNotFoundMsg(id));
         }
         documentSpecificationMapper.update(documentSpecificationCreateUpdateDTO, documentSpecification);
+        referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_SPECIFICATION, id);
         Log.info(CLASS_NAME, "Exited updateDocumentSpecificationById method", null);
         return Response.status(Response.Status.OK)
                 .entity(documentSpecificationMapper
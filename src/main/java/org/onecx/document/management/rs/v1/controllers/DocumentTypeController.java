@@ -11,6 +11,7 @@ import org.onecx.document.management.domain.daos.DocumentDAO;
 import org.onecx.document.management.domain.daos.DocumentTypeDAO;
 import org.onecx.document.management.rs.v1.RestException;
 import org.onecx.document.management.rs.v1.mappers.DocumentTypeMapper;
+import org.onecx.document.management.rs.v1.services.ReferenceDataCache;
 
 import gen.org.onecx.document.management.rs.v1.DocumentTypeControllerV1Api;
 import gen.org.onecx.document.management.rs.v1.model.DocumentTypeCreateUpdateDTO;
@@ -28,6 +29,9 @@ public class DocumentTypeController implements DocumentTypeControllerV1Api {
     @Inject
     DocumentDAO documentDAO;
 
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
     private static final String CLASS_NAME = "DocumentTypeController";
 
     @Override
@@ -35,6 +39,7 @@ public class DocumentTypeController implements DocumentTypeControllerV1Api {
     public Response createDocumentType(DocumentTypeCreateUpdateDTO documentTypeCreateUpdateDTO) {
         Log.info(CLASS_NAME, "Entered createDocumentType method", null);
         var documentType = documentTypeDAO.create(documentTypeMapper.map(documentTypeCreateUpdateDTO));
+        referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_TYPE, documentType.getId());
         Log.info(CLASS_NAME, "Exited createDocumentType method", null);
         return Response.status(Response.Status.CREATED)
                 .entity(documentTypeMapper.mapDocumentType(documentType))
@@ -60,8 +65,7 @@ public class DocumentTypeController implements DocumentTypeControllerV1Api {
         Log.info(CLASS_NAME, "Entered getAllTypesOfDocument method", null);
         Log.info(CLASS_NAME, "Exited getAllTypesOfDocument method", null);
         return Response.status(Response.Status.OK)
-                .entity(documentTypeMapper.findAllDocumentType(
-                        documentTypeDAO.findAll().toList()))
+                .entity(referenceDataCache.findAllDocumentTypes())
                 .build();
     }
 
@@ -77,6 +81,7 @@ public class DocumentTypeController implements DocumentTypeControllerV1Api {
                                 + ". It is assigned to the document.");
             }
             documentTypeDAO.delete(documentType);
+            referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_TYPE, id);
             Log.info(CLASS_NAME, "Exited deleteDocumentTypeById method", null);
             return Response.status(Response.Status.NO_CONTENT).build();
         }
@@ -93,6 +98,7 @@ public class DocumentTypeController implements DocumentTypeControllerV1Api {
                     getTypeNotFoundMsg(id));
         }
         documentTypeMapper.update(documentTypeCreateUpdateDTO, documentType);
+        referenceDataCache.invalidate(ReferenceDataCache.Type.DOCUMENT_TYPE, id);
         Log.info(CLASS_NAME, "Exited updateDocumentTypeById method", null);
         return Response.status(Response.Status.CREATED)
                 .entity(documentTypeMapper.mapDocumentType(documentTypeDAO.update(documentType)))
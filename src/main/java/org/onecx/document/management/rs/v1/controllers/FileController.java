@@ -2,19 +2,22 @@ package org.onecx.document.management.rs.v1.controllers;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Objects;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.core.StreamingOutput;
 
 import org.onecx.document.management.rs.v1.RestException;
+import org.onecx.document.management.rs.v1.services.DownloadConditions;
 import org.onecx.document.management.rs.v1.services.FileService;
 
 import gen.org.onecx.document.management.rs.v1.FileControllerV1Api;
+import gen.org.onecx.document.management.rs.v1.model.FileDeleteResultDTO;
 import gen.org.onecx.document.management.rs.v1.model.FileInfoDTO;
-import io.minio.GetObjectResponse;
+import io.minio.errors.ErrorResponseException;
 import io.quarkus.logging.Log;
 
 @ApplicationScoped
@@ -25,6 +28,8 @@ public class FileController implements FileControllerV1Api {
 
     private static final String CLASS_NAME = "FileController";
 
+    private static final String PRECONDITION_FAILED = "PreconditionFailed";
+
     @Override
     @Transactional
     public Response createBucket(String name) {
@@ -53,19 +58,14 @@ public class FileController implements FileControllerV1Api {
     }
 
     @Override
-    public Response downloadFile(String bucket, String path) {
+    public Response downloadFile(String bucket, String path, String range, String ifRange, String ifNoneMatch,
+            String ifModifiedSince) {
         Log.info(CLASS_NAME, "Entered downloadFileBytes method", null);
         try {
-            final GetObjectResponse object = fileService.downloadFile(path, bucket);
-            String contentType = object.headers().get("Content-Type");
-
-            final byte[] data = object.readAllBytes();
-            final StreamingOutput entity = output -> {
-                output.write(data);
-                output.flush();
-            };
+            var response = fileService.downloadFile(path, bucket,
+                    new DownloadConditions(range, ifRange, ifNoneMatch, ifModifiedSince));
             Log.info(CLASS_NAME, "Exited downloadFileBytes method", null);
-            return Response.ok(entity).header("Content-Type", contentType).build();
+            return response.build();
         } catch (Exception e) {
             throw new RestException(Response.Status.INTERNAL_SERVER_ERROR, Response.Status.INTERNAL_SERVER_ERROR,
                     e.getMessage());
@@ -74,16 +74,34 @@ public class FileController implements FileControllerV1Api {
 
     @Override
     @Transactional
-    public Response deleteFile(String bucket, String path) {
+    public Response deleteFile(String bucket, String path, String versionId, String ifMatch) {
         Log.info(CLASS_NAME, "Entered deleteFile method", null);
         try {
-            fileService.deleteFile(path, bucket);
+            if (!fileService.deleteFile(path, bucket, versionId, ifMatch)) {
+                return Response.status(Response.Status.PRECONDITION_FAILED).build();
+            }
             Log.info(CLASS_NAME, "Exited deleteFile method", null);
             return Response.status(Response.Status.CREATED).build();
         } catch (FileNotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND).entity(e.getMessage()).build();
+        } catch (ErrorResponseException e) {
+            if (PRECONDITION_FAILED.equals(e.errorResponse().code())) {
+                return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+            }
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
         }
     }
+
+    @Override
+    public Response deleteFiles(String bucket, List<String> paths) {
+        Log.info(CLASS_NAME, "Entered deleteFiles method", null);
+        if (Objects.isNull(paths) || paths.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Paths have not been provided").build();
+        }
+        List<FileDeleteResultDTO> results = fileService.deleteFiles(paths, bucket);
+        Log.info(CLASS_NAME, "Exited deleteFiles method", null);
+        return Response.ok(results).build();
+    }
 }
@@ -11,6 +11,7 @@ import org.onecx.document.management.domain.daos.AttachmentDAO;
 import org.onecx.document.management.domain.daos.SupportedMimeTypeDAO;
 import org.onecx.document.management.rs.v1.RestException;
 import org.onecx.document.management.rs.v1.mappers.SupportedMimeTypeMapper;
+import org.onecx.document.management.rs.v1.services.ReferenceDataCache;
 
 import gen.org.onecx.document.management.rs.v1.SupportedMimeTypeControllerV1Api;
 import gen.org.onecx.document.management.rs.v1.model.SupportedMimeTypeCreateUpdateDTO;
@@ -28,6 +29,9 @@ public class SupportedMimeTypeController implements SupportedMimeTypeControllerV
     @Inject
     AttachmentDAO attachmentDAO;
 
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
     private static final String CLASS_NAME = "SupportedMimeTypeController";
 
     @Override
@@ -35,6 +39,7 @@ public class SupportedMimeTypeController implements SupportedMimeTypeControllerV
     public Response createSupportedMimeType(SupportedMimeTypeCreateUpdateDTO supportedMimeTypeCreateUpdateDTO) {
         Log.info(CLASS_NAME, "Entered createSupportedMimeType method", null);
         var supportedMimeType = supportedMimeTypeDAO.create(supportedMimeTypeMapper.map(supportedMimeTypeCreateUpdateDTO));
+        referenceDataCache.invalidate(ReferenceDataCache.Type.SUPPORTED_MIME_TYPE, supportedMimeType.getId());
         Log.info(CLASS_NAME, "Exited createSupportedMimeType method", null);
         return Response.status(Response.Status.CREATED)
                 .entity(supportedMimeTypeMapper.mapToDTO(supportedMimeType))
@@ -60,8 +65,7 @@ public class SupportedMimeTypeController implements SupportedMimeTypeControllerV
         Log.info(CLASS_NAME, "Entered getAllSupportedMimeTypes method", null);
         Log.info(CLASS_NAME, "Exited getAllSupportedMimeTypes method", null);
         return Response.status(Response.Status.OK)
-                .entity(supportedMimeTypeMapper.findAllSupportedMimeTypes(supportedMimeTypeDAO.findAll()
-                        .toList()))
+                .entity(referenceDataCache.findAllSupportedMimeTypes())
                 .build();
     }
 
@@ -77,6 +81,7 @@ public class SupportedMimeTypeController implements SupportedMimeTypeControllerV
                                 + ". It is assigned to the attachment.");
             }
             supportedMimeTypeDAO.delete(supportedMimeType);
+            referenceDataCache.invalidate(ReferenceDataCache.Type.SUPPORTED_MIME_TYPE, id);
             Log.info(CLASS_NAME, "Exited deleteSupportedMimeTypeById method", null);
             return Response.status(Response.Status.NO_CONTENT).build();
         }
@@ -94,6 +99,7 @@ public class SupportedMimeTypeController implements SupportedMimeTypeControllerV
                     getMimeTypeNotFoundMsg(id));
         }
         supportedMimeTypeMapper.update(supportedMimeTypeCreateUpdateDTO, supportedMimeType);
+        referenceDataCache.invalidate(ReferenceDataCache.Type.SUPPORTED_MIME_TYPE, id);
         Log.info(CLASS_NAME, "Exited updateSupportedMimeTypeById method", null);
         return Response.status(Response.Status.OK)
                 .entity(supportedMimeTypeMapper
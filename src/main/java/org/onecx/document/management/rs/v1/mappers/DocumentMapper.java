@@ -1,8 +1,10 @@
 package org.onecx.document.management.rs.v1.mappers;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -22,8 +24,7 @@ import org.onecx.document.management.domain.models.entities.DocumentRelationship
 import org.onecx.document.management.domain.models.entities.RelatedObjectRef;
 import org.onecx.document.management.domain.models.entities.RelatedPartyRef;
 import org.onecx.document.management.domain.models.entities.StorageUploadAudit;
-import org.onecx.document.management.rs.v1.models.PageResultDTO;
-import org.tkit.quarkus.jpa.daos.PageResult;
+import org.onecx.document.management.rs.v1.services.DocumentUpdateResult;
 import org.tkit.quarkus.rs.mappers.OffsetDateTimeMapper;
 
 import gen.org.onecx.document.management.rs.v1.model.*;
@@ -52,10 +53,11 @@ public interface DocumentMapper {
 
     @Mapping(target = "startDate", ignore = true)
     @Mapping(target = "endDate", ignore = true)
+    @Mapping(target = "afterModificationDate", ignore = true)
+    @Mapping(target = "afterId", ignore = true)
+    @Mapping(target = "withCount", ignore = true)
     DocumentSearchCriteria map(DocumentSearchCriteriaDTO searchCriteriaDTO);
 
-    PageResultDTO<DocumentDetailDTO> mapToPageResultDTO(PageResult<Document> page);
-
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "type", ignore = true)
     @Mapping(target = "specification", ignore = true)
@@ -275,6 +277,7 @@ public interface DocumentMapper {
      * - Updates existing objects if they match by ID
      * - Removes objects that don't exist in the new collection
      * - Adds new objects that don't have IDs
+     * The new items are indexed by ID once, so the merge takes linear time.
      *
      * @param collection The existing collection to update
      * @param newItems New items to use for updating
@@ -294,18 +297,15 @@ public interface DocumentMapper {
             BiFunction<S, T, T> updateFunction,
             Function<S, T> mapFunction) {
         if (newItems != null) {
+            Map<I, S> newItemsById = indexById(newItems, getDtoId);
             // Remove or update existing items
             for (Iterator<T> i = collection.iterator(); i.hasNext();) {
                 T entity = i.next();
-                I entityId = getId.apply(entity);
-                Optional<S> dtoOptional = newItems.stream()
-                        .filter(dto -> getDtoId.apply(dto) != null)
-                        .filter(dto -> entityId.equals(getDtoId.apply(dto)))
-                        .findFirst();
-                if (dtoOptional.isEmpty()) {
+                S dto = newItemsById.get(getId.apply(entity));
+                if (dto == null) {
                     i.remove();
                 } else {
-                    updateFunction.apply(dtoOptional.get(), entity);
+                    updateFunction.apply(dto, entity);
                 }
             }
             for (S dto : newItems) {
@@ -317,6 +317,27 @@ public interface DocumentMapper {
         }
     }
 
+    /**
+     * Indexes the items with an ID by their ID. If several items have the same ID,
+     * the first one is kept.
+     *
+     * @param items the items
+     * @param getId Function to get ID from an item
+     * @param <S> item type
+     * @param <I> ID type
+     * @return the items by ID
+     */
+    default <S, I> Map<I, S> indexById(Collection<S> items, Function<S, I> getId) {
+        Map<I, S> itemsById = new HashMap<>();
+        for (S item : items) {
+            I id = getId.apply(item);
+            if (id != null) {
+                itemsById.putIfAbsent(id, item);
+            }
+        }
+        return itemsById;
+    }
+
     default void updateBulkTraceableCollectionsInDocument(List<Document> document,
             List<DocumentCreateUpdateDTO> updateDTO) {
         for (Document documentbulk : document) {
@@ -349,4 +370,8 @@ public interface DocumentMapper {
     }
 
     List<DocumentDetailDTO> mapDocuments(List<Document> documents);
+
+    DocumentBulkUpdateResultDTO mapBulkUpdateResult(DocumentUpdateResult result);
+
+    List<DocumentBulkUpdateResultDTO> mapBulkUpdateResults(List<DocumentUpdateResult> results);
 }
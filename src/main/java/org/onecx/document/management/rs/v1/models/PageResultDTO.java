@@ -15,6 +15,7 @@ public class PageResultDTO<T> {
     private int size;
     private long totalPages;
     private List<T> stream;
+    private String nextCursor;
 
     public PageResultDTO() {
     }
@@ -58,4 +59,12 @@ public class PageResultDTO<T> {
     public void setStream(List<T> stream) {
         this.stream = stream;
     }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,324 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.onecx.document.management.domain.daos.AttachmentDAO;
+import org.onecx.document.management.domain.models.projections.AttachmentObject;
+
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.Result;
+import io.minio.messages.Item;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+
+/**
+ * Reconciles the attachments with the objects of the bucket. The object
+ * listing of the bucket and the attachments ordered by id are both streamed
+ * page by page and compared as a sorted merge, so the memory needed does not
+ * depend on the number of objects. Two kinds of orphans are found:
+ * <ul>
+ * <li>objects without an attachment, which are deleted through the
+ * {@link ObjectDeletionOutboxService}</li>
+ * <li>uploaded attachments without an object, which are marked as not
+ * uploaded, so the weekly cleanup of failed uploads removes them</li>
+ * </ul>
+ * Objects and attachments younger than {@code minio.reconciliation.min-age}
+ * are skipped, as their upload may still be in progress. In dry-run mode the
+ * orphans are only reported. Clients can put their own files into any bucket
+ * through the file API, so orphan objects are only deleted if
+ * {@code minio.reconciliation.exclusive-bucket} states that the bucket holds
+ * attachments only. The run is throttled to
+ * {@code minio.reconciliation.max-items-per-second} objects and attachments.
+ */
+@ApplicationScoped
+public class AttachmentReconciliationService {
+
+    @Inject
+    MinioClient minioClient;
+
+    @Inject
+    AttachmentDAO attachmentDAO;
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
+    @ConfigProperty(name = "minio.bucket.folder")
+    String bucketFolder;
+
+    @ConfigProperty(name = "minio.reconciliation.page-size", defaultValue = "1000")
+    int pageSize;
+
+    @ConfigProperty(name = "minio.reconciliation.dry-run", defaultValue = "true")
+    boolean dryRun;
+
+    @ConfigProperty(name = "minio.reconciliation.exclusive-bucket", defaultValue = "false")
+    boolean exclusiveBucket;
+
+    @ConfigProperty(name = "minio.reconciliation.min-age", defaultValue = "PT24H")
+    Duration minAge;
+
+    @ConfigProperty(name = "minio.reconciliation.max-items-per-second", defaultValue = "1000")
+    int maxItemsPerSecond;
+
+    @ConfigProperty(name = "minio.reconciliation.report-limit", defaultValue = "100")
+    int reportLimit;
+
+    private static final String CLASS_NAME = "AttachmentReconciliationService";
+
+    /**
+     * Runs the reconciliation with the configured dry-run mode. It is disabled
+     * unless {@code minio.reconciliation.cron} is set.
+     */
+    @Scheduled(cron = "${minio.reconciliation.cron:off}", concurrentExecution = SKIP)
+    void reconcilePeriodically() {
+        reconcile(dryRun);
+    }
+
+    /**
+     * Compares the objects of the bucket with the attachments and repairs the
+     * orphans unless it is a dry run.
+     *
+     * @param dryRun {@code true} to only report the orphans
+     * @return the {@link ReconciliationReport}
+     */
+    public ReconciliationReport reconcile(boolean dryRun) {
+        return reconcile(dryRun, exclusiveBucket);
+    }
+
+    /**
+     * @param dryRun {@code true} to only report the orphans
+     * @param deleteOrphanObjects {@code false} to only report the orphan objects
+     *        in a repair run
+     * @return the {@link ReconciliationReport}
+     */
+    ReconciliationReport reconcile(boolean dryRun, boolean deleteOrphanObjects) {
+        Log.info(CLASS_NAME, "Entered reconcile method", null);
+        if (!dryRun && !deleteOrphanObjects) {
+            Log.warnf("Orphan objects of bucket %s are only reported, as the bucket is not exclusive"
+                    + " to attachments, see minio.reconciliation.exclusive-bucket", bucketFolder);
+        }
+        var run = new Run(dryRun, deleteOrphanObjects);
+        Iterator<Result<Item>> objects = minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(bucketFolder)
+                .recursive(true)
+                .build()).iterator();
+        var attachments = new AttachmentPager();
+        Item object = nextObject(objects);
+        AttachmentObject attachment = attachments.next();
+        while (Objects.nonNull(object) || Objects.nonNull(attachment)) {
+            /* Object names and attachment ids are ASCII, so both orders agree */
+            int comparison;
+            if (Objects.isNull(object)) {
+                comparison = 1;
+            } else if (Objects.isNull(attachment)) {
+                comparison = -1;
+            } else {
+                comparison = object.objectName().compareTo(attachment.attachmentId());
+            }
+            if (comparison < 0) {
+                run.objectWithoutAttachment(object);
+                object = nextObject(objects);
+            } else if (comparison > 0) {
+                run.attachmentWithoutObject(attachment);
+                attachment = attachments.next();
+            } else {
+                run.matched();
+                object = nextObject(objects);
+                attachment = attachments.next();
+            }
+        }
+        ReconciliationReport report = run.finish();
+        Log.infof("Reconciliation of bucket %s: %s", bucketFolder, report);
+        Log.info(CLASS_NAME, "Exited reconcile method", null);
+        return report;
+    }
+
+    @Transactional
+    public List<AttachmentObject> findAttachmentObjects(String afterId) {
+        return attachmentDAO.findAttachmentObjectsAfterId(afterId, pageSize);
+    }
+
+    @Transactional
+    public void markFilesNotUploaded(List<String> attachmentIds) {
+        attachmentDAO.markFilesNotUploaded(attachmentIds);
+    }
+
+    private static Item nextObject(Iterator<Result<Item>> objects) {
+        while (objects.hasNext()) {
+            Item item;
+            try {
+                item = objects.next().get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to list the objects of the bucket", e);
+            }
+            if (!item.isDir()) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The result of a reconciliation run.
+     *
+     * @param objects the number of objects in the bucket
+     * @param attachments the number of attachments
+     * @param orphanObjects the number of objects without an attachment
+     * @param missingObjects the number of uploaded attachments without an object
+     * @param dryRun whether the orphans were only reported
+     */
+    public record ReconciliationReport(long objects, long attachments, long orphanObjects, long missingObjects,
+            boolean dryRun) {
+    }
+
+    /**
+     * Loads the attachments page by page.
+     */
+    private class AttachmentPager {
+
+        private Iterator<AttachmentObject> page = List.<AttachmentObject> of().iterator();
+
+        private String lastId;
+
+        private boolean exhausted;
+
+        AttachmentObject next() {
+            if (!page.hasNext() && !exhausted) {
+                List<AttachmentObject> attachments = findAttachmentObjects(lastId);
+                exhausted = attachments.size() < pageSize;
+                if (!attachments.isEmpty()) {
+                    lastId = attachments.get(attachments.size() - 1).attachmentId();
+                }
+                page = attachments.iterator();
+            }
+            return page.hasNext() ? page.next() : null;
+        }
+    }
+
+    /**
+     * The state of one run: counts, throttling and the buffered repairs.
+     */
+    private class Run {
+
+        private final boolean dryRun;
+
+        private final boolean deleteOrphanObjects;
+
+        private final long startNanos = System.nanoTime();
+
+        private final ZonedDateTime objectsBefore = ZonedDateTime.now().minus(minAge);
+
+        private final LocalDateTime attachmentsBefore = LocalDateTime.now().minus(minAge);
+
+        private final List<String> orphanObjectKeys = new ArrayList<>();
+
+        private final List<String> missingObjectIds = new ArrayList<>();
+
+        private long objects;
+
+        private long attachments;
+
+        private long orphanObjects;
+
+        private long missingObjects;
+
+        Run(boolean dryRun, boolean deleteOrphanObjects) {
+            this.dryRun = dryRun;
+            this.deleteOrphanObjects = deleteOrphanObjects;
+        }
+
+        void objectWithoutAttachment(Item object) {
+            objects++;
+            if (object.lastModified().isBefore(objectsBefore)) {
+                orphanObjects++;
+                report("Object %s has no attachment", object.objectName(), orphanObjects);
+                orphanObjectKeys.add(object.objectName());
+                if (orphanObjectKeys.size() >= pageSize) {
+                    repairOrphanObjects();
+                }
+            }
+            throttle();
+        }
+
+        void attachmentWithoutObject(AttachmentObject attachment) {
+            attachments++;
+            if (attachment.uploaded() && (Objects.isNull(attachment.modificationDate())
+                    || attachment.modificationDate().isBefore(attachmentsBefore))) {
+                missingObjects++;
+                report("Attachment %s has no object", attachment.attachmentId(), missingObjects);
+                missingObjectIds.add(attachment.attachmentId());
+                if (missingObjectIds.size() >= pageSize) {
+                    repairMissingObjects();
+                }
+            }
+            throttle();
+        }
+
+        void matched() {
+            objects++;
+            attachments++;
+            throttle();
+        }
+
+        ReconciliationReport finish() {
+            repairOrphanObjects();
+            repairMissingObjects();
+            return new ReconciliationReport(objects, attachments, orphanObjects, missingObjects, dryRun);
+        }
+
+        private void report(String format, String id, long count) {
+            if (count <= reportLimit) {
+                Log.infof(format, id);
+            }
+        }
+
+        private void repairOrphanObjects() {
+            if (!dryRun && deleteOrphanObjects && !orphanObjectKeys.isEmpty()) {
+                objectDeletionOutboxService.enqueue(List.copyOf(orphanObjectKeys));
+            }
+            orphanObjectKeys.clear();
+        }
+
+        private void repairMissingObjects() {
+            if (!dryRun && !missingObjectIds.isEmpty()) {
+                markFilesNotUploaded(List.copyOf(missingObjectIds));
+            }
+            missingObjectIds.clear();
+        }
+
+        /**
+         * Sleeps as long as the run is ahead of the allowed rate.
+         */
+        private void throttle() {
+            if (maxItemsPerSecond <= 0) {
+                return;
+            }
+            long items = objects + attachments;
+            long aheadNanos = items * 1_000_000_000L / maxItemsPerSecond - (System.nanoTime() - startNanos);
+            /* Sleep in steps of at least 10 ms instead of after every item */
+            if (aheadNanos >= 10_000_000L) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("The reconciliation was interrupted", e);
+                }
+            }
+        }
+    }
+}
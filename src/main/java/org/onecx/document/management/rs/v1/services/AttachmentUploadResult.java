@@ -0,0 +1,22 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of uploading the file of one attachment to the object storage.
+ *
+ * @param attachmentId the attachment id
+ * @param uploaded true if the file was stored in the object storage
+ * @param size the stored size in bytes
+ * @param contentType the detected content type
+ */
+public record AttachmentUploadResult(String attachmentId, boolean uploaded, BigDecimal size, String contentType) {
+
+    static AttachmentUploadResult success(String attachmentId, BigDecimal size, String contentType) {
+        return new AttachmentUploadResult(attachmentId, true, size, contentType);
+    }
+
+    static AttachmentUploadResult failure(String attachmentId) {
+        return new AttachmentUploadResult(attachmentId, false, null, null);
+    }
+}
@@ -0,0 +1,231 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Writes files of the object storage into a ZIP archive. While one entry is
+ * written, the next {@code minio.zip.prefetch-count} objects are already
+ * requested on the shared download pool and their first bytes are buffered,
+ * so the latency of the object storage is paid once per window instead of
+ * once per file. The buffered bytes of all objects in flight never exceed
+ * {@code minio.zip.read-ahead-bytes}; the rest of an object is streamed when
+ * its entry is written. Entries are written in the order of the given items.
+ * <p>
+ * With {@link ZipCompression#AUTO} only files of the configured text-like mime
+ * types are deflated. Other files, e.g. PDFs and images, are already compressed
+ * and are stored as they are. A stored entry needs its size and CRC before its
+ * data, so with {@link ZipCompression#AUTO} only files which fit into the
+ * read-ahead buffer are written with the STORED method; larger ones are
+ * deflated without compression, which costs no more CPU than copying them.
+ * With {@link ZipCompression#STORED} larger files are spooled to a temporary
+ * file first to compute their size and CRC.
+ */
+@ApplicationScoped
+public class AttachmentZipWriter {
+
+    @Inject
+    DocumentService documentService;
+
+    @Inject
+    ObjectStorageExecutor objectStorageExecutor;
+
+    @ConfigProperty(name = "minio.zip.prefetch-count", defaultValue = "4")
+    int prefetchCount;
+
+    @ConfigProperty(name = "minio.zip.read-ahead-bytes", defaultValue = "8388608")
+    int readAheadBytes;
+
+    @ConfigProperty(name = "minio.download.buffer-size", defaultValue = "8192")
+    int downloadBufferSize;
+
+    @ConfigProperty(name = "minio.zip.deflate-level", defaultValue = "-1")
+    int deflateLevel;
+
+    /* Mime types ending with a slash match all subtypes */
+    @ConfigProperty(name = "minio.zip.compressible-mime-types", defaultValue = "text/,application/json,"
+            + "application/ld+json,application/xml,application/xhtml+xml,application/javascript,application/rtf,"
+            + "application/x-sh,application/x-csh,application/msword,application/vnd.ms-excel,application/msexcel,"
+            + "application/vnd.ms-powerpoint,application/vnd.visio,image/svg+xml,image/bmp,image/tiff")
+    List<String> compressibleMimeTypes;
+
+    private static final String CLASS_NAME = "AttachmentZipWriter";
+
+    /**
+     * Writes one entry per item into the ZIP. The ZIP is neither finished nor
+     * closed.
+     *
+     * @param items the files in the order of the ZIP entries
+     * @param zip the ZIP output
+     * @param compression the compression of the entries
+     * @throws IOException if a file could not be downloaded or written
+     */
+    public void write(Iterator<ZipItem> items, ZipOutputStream zip, ZipCompression compression)
+            throws IOException {
+        Log.info(CLASS_NAME, "Entered write method", null);
+        /* The entry being written holds a read-ahead buffer as well */
+        int window = Math.max(1, prefetchCount);
+        int bufferSize = Math.max(downloadBufferSize, readAheadBytes / (window + 1));
+        Deque<CompletableFuture<PrefetchedObject>> pending = new ArrayDeque<>();
+        try {
+            fill(pending, items, window, bufferSize);
+            while (!pending.isEmpty()) {
+                try (PrefetchedObject object = await(pending.poll())) {
+                    fill(pending, items, window, bufferSize);
+                    writeEntry(zip, object, compression);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            /* Release the connections of objects which are already or will be opened */
+            pending.forEach(future -> future.thenAccept(PrefetchedObject::close));
+            throw e;
+        }
+        Log.info(CLASS_NAME, "Exited write method", null);
+    }
+
+    private void fill(Deque<CompletableFuture<PrefetchedObject>> pending, Iterator<ZipItem> items, int window,
+            int bufferSize) {
+        while (pending.size() < window && items.hasNext()) {
+            ZipItem item = items.next();
+            pending.add(CompletableFuture.supplyAsync(() -> prefetch(item, bufferSize),
+                    objectStorageExecutor.getDownloadExecutor()));
+        }
+    }
+
+    private PrefetchedObject prefetch(ZipItem item, int bufferSize) {
+        InputStream object = null;
+        try {
+            object = documentService.getObjectFromObjectStore(item.objectId());
+            byte[] head = object.readNBytes(bufferSize);
+            if (head.length < bufferSize) {
+                /* The whole object is buffered, the connection is not needed anymore */
+                object.close();
+                return new PrefetchedObject(item, head, null);
+            }
+            return new PrefetchedObject(item, head, object);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(object);
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            IOUtils.closeQuietly(object);
+            throw new CompletionException(e);
+        }
+    }
+
+    private static PrefetchedObject await(CompletableFuture<PrefetchedObject> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to download file", e.getCause());
+        }
+    }
+
+    private void writeEntry(ZipOutputStream zip, PrefetchedObject object, ZipCompression compression)
+            throws IOException {
+        var entry = new ZipEntry(object.item().entryName());
+        entry.setCreationTime(object.item().fileTime());
+        entry.setLastModifiedTime(object.item().fileTime());
+        boolean deflate = compression == ZipCompression.DEFLATED
+                || (compression == ZipCompression.AUTO && isCompressible(object.item().mimeType()));
+        if (compression == ZipCompression.STORED && object.remainder() != null) {
+            writeSpooledEntry(zip, entry, object);
+            return;
+        }
+        if (!deflate && object.remainder() == null) {
+            var crc = new CRC32();
+            crc.update(object.head());
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(object.head().length);
+            entry.setCompressedSize(object.head().length);
+            entry.setCrc(crc.getValue());
+        } else {
+            entry.setMethod(ZipEntry.DEFLATED);
+            zip.setLevel(deflate ? deflateLevel : Deflater.NO_COMPRESSION);
+        }
+        zip.putNextEntry(entry);
+        zip.write(object.head());
+        if (object.remainder() != null) {
+            IOUtils.copy(object.remainder(), zip, downloadBufferSize);
+        }
+        zip.closeEntry();
+    }
+
+    /**
+     * Writes a STORED entry of an object larger than its read-ahead buffer. The
+     * rest of the object is copied to a temporary file while its CRC is computed.
+     */
+    private void writeSpooledEntry(ZipOutputStream zip, ZipEntry entry, PrefetchedObject object)
+            throws IOException {
+        Path spool = Files.createTempFile("zip-entry-", ".tmp");
+        try {
+            var crc = new CRC32();
+            crc.update(object.head());
+            long size = object.head().length;
+            try (OutputStream out = Files.newOutputStream(spool);
+                    var in = new CheckedInputStream(object.remainder(), crc)) {
+                size += IOUtils.copyLarge(in, out, new byte[downloadBufferSize]);
+            }
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(object.head());
+            Files.copy(spool, zip);
+            zip.closeEntry();
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    boolean isCompressible(String mimeType) {
+        if (Objects.isNull(mimeType)) {
+            return false;
+        }
+        String value = mimeType.trim().toLowerCase(Locale.ROOT);
+        return compressibleMimeTypes.stream()
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .anyMatch(type -> type.endsWith("/") ? value.startsWith(type) : value.equals(type));
+    }
+
+    /**
+     * An object of which the first bytes are already read.
+     *
+     * @param item the ZIP item
+     * @param head the buffered bytes
+     * @param remainder the open object stream positioned after the buffered
+     *        bytes, {@code null} if the object is completely buffered
+     */
+    record PrefetchedObject(ZipItem item, byte[] head, InputStream remainder) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            IOUtils.closeQuietly(remainder);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.postgresql.Driver;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Cluster-wide invalidation of the {@link ReferenceDataCache} with PostgreSQL
+ * {@code LISTEN/NOTIFY} over the datasource of the service. A change is
+ * published with {@code pg_notify} in the transaction of the change, so
+ * PostgreSQL delivers it to every pod when the transaction commits and drops it
+ * on rollback. Every pod holds one connection which listens on the channel and
+ * evicts the matching cache entries. The connection is opened with the JDBC URL
+ * of the datasource but outside of its pool, so it neither reduces the pool
+ * size nor is closed by the pool's leak detection or max. lifetime.
+ * <p>
+ * Notifications sent while a pod is not listening are lost, so all caches are
+ * evicted whenever the listener (re)connects.
+ */
+@ApplicationScoped
+public class CacheInvalidationBus {
+
+    private static final char SEPARATOR = ':';
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    Optional<String> jdbcUrl;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    @ConfigProperty(name = "document.cache.invalidation.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "document.cache.invalidation.channel", defaultValue = "dm_cache_invalidation")
+    String channel;
+
+    @ConfigProperty(name = "document.cache.invalidation.poll-timeout", defaultValue = "PT0.5S")
+    Duration pollTimeout;
+
+    @ConfigProperty(name = "document.cache.invalidation.reconnect-delay", defaultValue = "PT5S")
+    Duration reconnectDelay;
+
+    private volatile boolean running;
+
+    private Thread listener;
+
+    private static final String CLASS_NAME = "CacheInvalidationBus";
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            running = true;
+            listener = new Thread(this::listen, "cache-invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (Objects.nonNull(listener)) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Publishes the change to all pods when the current transaction commits.
+     * Without a transaction it is published immediately.
+     *
+     * @param type the changed reference data
+     * @param id the id of the changed entity or {@code null} for all entities
+     */
+    @Transactional
+    public void publish(ReferenceDataCache.Type type, String id) {
+        Log.info(CLASS_NAME, "Entered publish method", null);
+        if (enabled) {
+            String payload = Objects.isNull(id) ? type.name() : type.name() + SEPARATOR + id;
+            em.unwrap(Session.class).doWork(connection -> {
+                try (var statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    statement.setString(1, channel);
+                    statement.setString(2, payload);
+                    statement.execute();
+                }
+            });
+        }
+        Log.info(CLASS_NAME, "Exited publish method", null);
+    }
+
+    /**
+     * Evicts the cache entries of the notification.
+     *
+     * @param payload the type optionally followed by a colon and the id
+     */
+    void onNotification(String payload) {
+        int separator = payload.indexOf(SEPARATOR);
+        String typeName = separator < 0 ? payload : payload.substring(0, separator);
+        String id = separator < 0 ? null : payload.substring(separator + 1);
+        ReferenceDataCache.Type type;
+        try {
+            type = ReferenceDataCache.Type.valueOf(typeName);
+        } catch (IllegalArgumentException e) {
+            Log.warnf("Ignoring cache invalidation of unknown type %s", typeName);
+            return;
+        }
+        referenceDataCache.evict(type, id);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Log.infof("Listening for cache invalidations on channel %s", channel);
+                referenceDataCache.evictAll();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (Objects.nonNull(notifications)) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    Log.warnf(e, "Listening for cache invalidations failed, reconnecting in %s", reconnectDelay);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a new connection to the database of the datasource, which is not
+     *         taken from its pool
+     */
+    private Connection openConnection() throws SQLException {
+        var properties = new Properties();
+        username.ifPresent(value -> properties.setProperty("user", value));
+        password.ifPresent(value -> properties.setProperty("password", value));
+        properties.setProperty("ApplicationName", "cache-invalidation-listener");
+        String url = jdbcUrl.orElseThrow(() -> new SQLException("quarkus.datasource.jdbc.url is not set"));
+        Connection connection = new Driver().connect(url, properties);
+        if (Objects.isNull(connection)) {
+            throw new SQLException("Not a PostgreSQL JDBC URL: " + url);
+        }
+        return connection;
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * The position of a document in the search results, which are ordered by
+ * modification date and id. Clients get it as an opaque string to request the
+ * page after this document.
+ *
+ * @param modificationDate the modification date of the document, may be
+ *        {@code null}
+ * @param id the document id
+ */
+public record DocumentCursor(LocalDateTime modificationDate, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * @return the opaque cursor string
+     */
+    public String encode() {
+        String value = (Objects.isNull(modificationDate) ? "" : modificationDate.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor the opaque cursor string
+     * @return the cursor
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public static DocumentCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0 || separator == value.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+            String date = value.substring(0, separator);
+            return new DocumentCursor(date.isEmpty() ? null : LocalDateTime.parse(date), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
+import org.onecx.document.management.domain.daos.AttachmentDAO;
+import org.onecx.document.management.domain.daos.DocumentDAO;
+import org.onecx.document.management.domain.models.projections.DocumentAttachmentFile;
+
+/**
+ * Provides the attachment files of many documents for a ZIP export. Documents
+ * and their files are loaded page by page while the ZIP is written, so the
+ * memory needed does not depend on the number of matching documents.
+ */
+@ApplicationScoped
+public class DocumentExportService {
+
+    @Inject
+    DocumentDAO documentDAO;
+
+    @Inject
+    AttachmentDAO attachmentDAO;
+
+    @ConfigProperty(name = "document.export.document-page-size", defaultValue = "100")
+    int documentPageSize;
+
+    @ConfigProperty(name = "document.export.file-page-size", defaultValue = "200")
+    int filePageSize;
+
+    /**
+     * Creates the ZIP items of the uploaded attachment files of the given
+     * documents, with one folder per document. Pages are loaded lazily while
+     * iterating.
+     *
+     * @param documentIds the document ids
+     * @param zoneId the time zone of the entry times
+     * @return the ZIP items ordered by document and attachment id
+     */
+    public Iterator<ZipItem> zipItemsOfDocuments(List<String> documentIds, ZoneId zoneId) {
+        var sortedIds = new ArrayList<>(new TreeSet<>(documentIds));
+        return new ZipItemIterator(afterId -> {
+            int from = Objects.isNull(afterId) ? 0 : Collections.binarySearch(sortedIds, afterId) + 1;
+            return sortedIds.subList(from, Math.min(from + documentPageSize, sortedIds.size()));
+        }, zoneId);
+    }
+
+    /**
+     * Creates the ZIP items of the uploaded attachment files of the documents
+     * matching the criteria, with one folder per document. Pages are loaded
+     * lazily while iterating.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @param zoneId the time zone of the entry times
+     * @return the ZIP items ordered by document and attachment id
+     */
+    public Iterator<ZipItem> zipItemsOfDocuments(DocumentSearchCriteria criteria, ZoneId zoneId) {
+        return new ZipItemIterator(afterId -> findDocumentIds(criteria, afterId), zoneId);
+    }
+
+    @Transactional
+    public List<String> findDocumentIds(DocumentSearchCriteria criteria, String afterId) {
+        return documentDAO.findDocumentIdsBySearchCriteria(criteria, afterId, documentPageSize);
+    }
+
+    @Transactional
+    public List<DocumentAttachmentFile> findFiles(List<String> documentIds, String afterDocumentId,
+            String afterAttachmentId) {
+        return attachmentDAO.findUploadedFilesOfDocuments(documentIds, afterDocumentId, afterAttachmentId,
+                filePageSize);
+    }
+
+    static String folderName(DocumentAttachmentFile file) {
+        String name = Objects.isNull(file.documentName()) ? "" : file.documentName().replaceAll("[/\\\\]", "_");
+        return name.isBlank() ? file.documentId() : name + "_" + file.documentId();
+    }
+
+    /**
+     * Loads the next page of document ids after the given id.
+     */
+    @FunctionalInterface
+    interface DocumentIdPager {
+        List<String> next(String afterId);
+    }
+
+    /**
+     * Iterates the files page by page: a page of document ids is loaded first,
+     * then the files of these documents are loaded in pages until they are
+     * exhausted.
+     */
+    private class ZipItemIterator implements Iterator<ZipItem> {
+
+        private final DocumentIdPager documentIdPager;
+
+        private final ZoneId zoneId;
+
+        private final Deque<DocumentAttachmentFile> files = new ArrayDeque<>();
+
+        private List<String> documentIds;
+
+        private String lastDocumentId;
+
+        private boolean documentsExhausted;
+
+        private DocumentAttachmentFile lastFile;
+
+        private String currentFolderDocumentId;
+
+        private final Set<String> entryNames = new HashSet<>();
+
+        ZipItemIterator(DocumentIdPager documentIdPager, ZoneId zoneId) {
+            this.documentIdPager = documentIdPager;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (files.isEmpty()) {
+                if (Objects.nonNull(documentIds)) {
+                    List<DocumentAttachmentFile> page = findFiles(documentIds,
+                            Objects.isNull(lastFile) ? null : lastFile.documentId(),
+                            Objects.isNull(lastFile) ? null : lastFile.attachmentId());
+                    files.addAll(page);
+                    if (!page.isEmpty()) {
+                        lastFile = page.get(page.size() - 1);
+                    }
+                    if (page.size() < filePageSize) {
+                        documentIds = null;
+                    }
+                } else if (documentsExhausted) {
+                    return false;
+                } else {
+                    List<String> page = List.copyOf(documentIdPager.next(lastDocumentId));
+                    if (page.isEmpty()) {
+                        documentsExhausted = true;
+                    } else {
+                        documentIds = page;
+                        lastDocumentId = page.get(page.size() - 1);
+                        lastFile = null;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ZipItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            DocumentAttachmentFile file = files.poll();
+            if (!file.documentId().equals(currentFolderDocumentId)) {
+                currentFolderDocumentId = file.documentId();
+                entryNames.clear();
+            }
+            String folder = folderName(file) + "/";
+            String fileName = Objects.isNull(file.fileName()) ? file.attachmentId() : file.fileName();
+            String entryName = folder + fileName;
+            /* Entry names must be unique within the ZIP */
+            for (int i = 1; !entryNames.add(entryName); i++) {
+                entryName = folder + "(" + i + ") " + fileName;
+            }
+            return new ZipItem(entryName, file.attachmentId(), ZipItem.fileTime(file.creationDate(), zoneId),
+                    file.mimeType());
+        }
+    }
+}
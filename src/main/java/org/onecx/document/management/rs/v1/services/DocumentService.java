@@ -1,6 +1,6 @@
 package org.onecx.document.management.rs.v1.services;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
@@ -8,7 +8,10 @@ import java.net.URLConnection;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -17,16 +20,14 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.multipart.FileItem;
 import org.jboss.resteasy.reactive.server.multipart.FormValue;
 import org.jboss.resteasy.reactive.server.multipart.MultipartFormDataInput;
 import org.onecx.document.management.domain.daos.AttachmentDAO;
+import org.onecx.document.management.domain.daos.ChannelDAO;
 import org.onecx.document.management.domain.daos.DocumentDAO;
-import org.onecx.document.management.domain.daos.DocumentTypeDAO;
-import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
 import org.onecx.document.management.domain.daos.StorageUploadAuditDAO;
-import org.onecx.document.management.domain.daos.SupportedMimeTypeDAO;
 import org.onecx.document.management.domain.models.entities.Attachment;
 import org.onecx.document.management.domain.models.entities.Category;
 import org.onecx.document.management.domain.models.entities.Channel;
@@ -35,13 +36,11 @@ import org.onecx.document.management.domain.models.entities.DocumentCharacterist
 import org.onecx.document.management.domain.models.entities.DocumentRelationship;
 import org.onecx.document.management.domain.models.entities.DocumentSpecification;
 import org.onecx.document.management.domain.models.entities.DocumentType;
-import org.onecx.document.management.domain.models.entities.MinioAuditLog;
 import org.onecx.document.management.domain.models.entities.RelatedObjectRef;
 import org.onecx.document.management.domain.models.entities.RelatedPartyRef;
 import org.onecx.document.management.domain.models.entities.StorageUploadAudit;
 import org.onecx.document.management.domain.models.entities.SupportedMimeType;
 import org.onecx.document.management.domain.models.enums.AttachmentUnit;
-import org.onecx.document.management.rs.v1.CustomException;
 import org.onecx.document.management.rs.v1.RestException;
 import org.onecx.document.management.rs.v1.mappers.DocumentMapper;
 import org.onecx.document.management.rs.v1.mappers.DocumentSpecificationMapper;
@@ -52,7 +51,6 @@ import gen.org.onecx.document.management.rs.v1.model.DocumentCreateUpdateDTO;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
-import io.minio.RemoveObjectArgs;
 import io.minio.errors.ErrorResponseException;
 import io.minio.errors.InsufficientDataException;
 import io.minio.errors.InternalException;
@@ -60,8 +58,6 @@ import io.minio.errors.InvalidResponseException;
 import io.minio.errors.ServerException;
 import io.minio.errors.XmlParserException;
 import io.quarkus.logging.Log;
-import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -77,33 +73,45 @@ public class DocumentService {
     @Inject
     DocumentMapper documentMapper;
 
-    @Inject
-    DocumentTypeDAO typeDAO;
-
     @Inject
     DocumentSpecificationMapper documentSpecificationMapper;
 
     @Inject
-    SupportedMimeTypeDAO mimeTypeDAO;
+    ReferenceDataCache referenceDataCache;
 
     @Inject
     AttachmentDAO attachmentDAO;
 
     @Inject
-    StorageUploadAuditDAO storageUploadAuditDAO;
+    ChannelDAO channelDAO;
 
     @Inject
-    MinioAuditLogDAO minioAuditLogDAO;
+    StorageUploadAuditDAO storageUploadAuditDAO;
 
     @Inject
     MinioClient minioClient;
 
+    @Inject
+    ObjectStorageExecutor objectStorageExecutor;
+
+    @Inject
+    ObjectDownloadService objectDownloadService;
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
     @ConfigProperty(name = "minio.bucket.folder")
     String bucketFolder;
 
     @ConfigProperty(name = "quarkus.minio.url")
     String minioUrl;
 
+    @ConfigProperty(name = "minio.upload.part-size", defaultValue = "5242880")
+    long uploadPartSize;
+
+    @ConfigProperty(name = "minio.upload.buffer-size", defaultValue = "8192")
+    int uploadBufferSize;
+
     private static final Pattern FILENAME_PATTERN = Pattern.compile("filename=\\\"(.*)\\\"");
 
     private static final String SLASH = "/";
@@ -124,11 +132,22 @@ public class DocumentService {
         setType(dto, document);
         setSpecification(dto, document);
         setAttachments(dto, document);
+        invalidateChannelsIfNameAdded(document.getChannel());
         Log.info(CLASS_NAME, "Exited createDocument method", null);
         return documentDAO.create(document);
     }
 
-    @Transactional
+    /**
+     * Uploads the files of the document's attachments. The object storage calls
+     * run in parallel on the bounded upload executor without holding a database
+     * transaction; their results are applied afterwards in
+     * {@link #applyUploadResults(String, List)}.
+     *
+     * @param documentId the document id
+     * @param input the multipart form with the files
+     * @return a map of {@code attachmentId/name} to the upload HTTP status
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public Map<String, Integer> uploadAttachment(String documentId, MultipartFormDataInput input)
             throws IOException {
         Log.info(CLASS_NAME, "Entered uploadAttachment method", null);
@@ -164,38 +183,79 @@ public class DocumentService {
         } else {
             newAttachmentSet.addAll(document.getAttachments());
         }
-        if (!newAttachmentSet.isEmpty()) {
-            newAttachmentSet.stream()
-                    .forEach(attachment -> {
-                        Optional<FormValue> matchedInputPart = inputParts.stream().filter(inputPart -> {
-                            String filename = inputPart.getFileName();
-                            return attachment.getFileName().equals(filename);
-                        }).findFirst();
-                        String strFilenameFileId = attachment.getId() + SLASH + attachment.getName();
-                        try {
-                            if (matchedInputPart.isPresent()) {
-                                InputStream inputPartBody = matchedInputPart.get().getFileItem().getInputStream();
-                                byte[] fileBytes = IOUtils.toByteArray(inputPartBody);
-                                InputStream fileByteArrayInputStream = new ByteArrayInputStream(fileBytes);
-                                String contentType = URLConnection.guessContentTypeFromStream(fileByteArrayInputStream);
-                                uploadFileToObjectStorage(fileBytes, attachment.getId());
-                                map.put(strFilenameFileId, Response.Status.CREATED.getStatusCode());
-                                updateAttachmentAfterUpload(attachment, new BigDecimal(fileBytes.length), contentType);
-                            }
-                        } catch (Exception e) {
-                            map.put(strFilenameFileId, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
-                            createStorageUploadAuditRecords(documentId, document, attachment);
-                            log.error("Error Message: ", e);
-                        }
-                    });
-        } else {
+        if (newAttachmentSet.isEmpty()) {
             Log.info(CLASS_NAME, "Exited uploadAttachment method", null);
             return map;
         }
+        Map<String, String> responseKeys = new HashMap<>();
+        List<CompletableFuture<AttachmentUploadResult>> uploads = new ArrayList<>();
+        for (Attachment attachment : newAttachmentSet) {
+            Optional<FormValue> matchedInputPart = inputParts.stream()
+                    .filter(inputPart -> attachment.getFileName().equals(inputPart.getFileName()))
+                    .findFirst();
+            if (matchedInputPart.isPresent()) {
+                responseKeys.put(attachment.getId(), attachment.getId() + SLASH + attachment.getName());
+                FileItem fileItem = matchedInputPart.get().getFileItem();
+                uploads.add(CompletableFuture.supplyAsync(() -> uploadAttachmentFile(attachment.getId(), fileItem),
+                        objectStorageExecutor.getUploadExecutor()));
+            }
+        }
+        List<AttachmentUploadResult> results = uploads.stream().map(CompletableFuture::join).toList();
+        applyUploadResults(documentId, results);
+        results.forEach(result -> map.put(responseKeys.get(result.attachmentId()),
+                result.uploaded() ? Response.Status.CREATED.getStatusCode()
+                        : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()));
         Log.info(CLASS_NAME, "Exited uploadAttachment method", null);
         return map;
     }
 
+    /**
+     * Updates the uploaded attachments and writes the {@link StorageUploadAudit}
+     * records of the failed ones in one short transaction, after all object
+     * storage calls of the request have finished.
+     *
+     * @param documentId the document id
+     * @param results the upload results of the document's attachments
+     */
+    @Transactional
+    public void applyUploadResults(String documentId, List<AttachmentUploadResult> results) {
+        Log.info(CLASS_NAME, "Entered applyUploadResults method", null);
+        var document = documentDAO.findDocumentById(documentId);
+        if (Objects.isNull(document)) {
+            throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND,
+                    getDocumentNotFoundMsg(documentId));
+        }
+        Map<String, Attachment> attachments = document.getAttachments().stream()
+                .collect(Collectors.toMap(Attachment::getId, Function.identity()));
+        for (AttachmentUploadResult result : results) {
+            var attachment = attachments.get(result.attachmentId());
+            if (Objects.isNull(attachment)) {
+                // the attachment was removed from the document while its file was uploaded
+                continue;
+            }
+            if (result.uploaded()) {
+                updateAttachmentAfterUpload(attachment, result.size(), result.contentType());
+            } else {
+                createStorageUploadAuditRecords(documentId, document, attachment);
+            }
+        }
+        Log.info(CLASS_NAME, "Exited applyUploadResults method", null);
+    }
+
+    private AttachmentUploadResult uploadAttachmentFile(String attachmentId, FileItem fileItem) {
+        try (var inputPartBody = new BufferedInputStream(fileItem.getInputStream(), uploadBufferSize)) {
+            // sniffing only marks and resets the first bytes of the buffered stream
+            String contentType = URLConnection.guessContentTypeFromStream(inputPartBody);
+            var countingInputStream = new CountingInputStream(inputPartBody);
+            uploadFileToObjectStorage(countingInputStream, fileItem.getFileSize(), attachmentId);
+            return AttachmentUploadResult.success(attachmentId, BigDecimal.valueOf(countingInputStream.getCount()),
+                    contentType);
+        } catch (Exception e) {
+            log.error("Error Message: ", e);
+            return AttachmentUploadResult.failure(attachmentId);
+        }
+    }
+
     private List<String> getAttachmentIdList(List<FormValue> inputPartList) throws IOException {
         List<String> attachmentIdList = new ArrayList<>();
         var stringTokenizer = new StringTokenizer(String.valueOf(inputPartList.get(0).getFileItem()),
@@ -252,6 +312,7 @@ public class DocumentService {
     @Transactional
     public Document updateDocument(Document document, DocumentCreateUpdateDTO dto) {
         Log.info(CLASS_NAME, "Entered updateDocument method", null);
+        String channelName = Objects.isNull(document.getChannel()) ? null : document.getChannel().getName();
         documentMapper.update(dto, document);
         setType(dto, document);
         setSpecification(dto, document);
@@ -259,10 +320,87 @@ public class DocumentService {
         updateRelatedObjectRefInDocument(document, dto);
         documentMapper.updateTraceableCollectionsInDocument(document, dto);
         updateAttachmentsInDocument(document, dto);
+        if (Objects.isNull(channelName) || !channelName.equalsIgnoreCase(document.getChannel().getName())) {
+            invalidateChannelsIfNameAdded(document.getChannel());
+            invalidateChannelsIfNamesRemoved(Objects.isNull(channelName) ? List.of() : List.of(channelName));
+        }
         Log.info(CLASS_NAME, "Exited updateDocument method", null);
         return document;
     }
 
+    /**
+     * Updates the documents of the given DTOs. The documents are loaded by a few
+     * IN-list queries, the changes are applied in memory and written by batched
+     * statements when the persistence context is flushed. Every item is checked
+     * before it is applied, so an item which refers to a missing document, type
+     * or mime type leaves its document unchanged and does not affect the others.
+     *
+     * @param dtos the {@link DocumentCreateUpdateDTO}s
+     * @return the result of every item in the order of the DTOs
+     */
+    @Transactional
+    public List<DocumentUpdateResult> updateDocumentsInBulk(List<DocumentCreateUpdateDTO> dtos) {
+        Log.info(CLASS_NAME, "Entered updateDocumentsInBulk method", null);
+        Map<String, Document> documents = documentDAO.findDocumentsByIds(dtos.stream()
+                .map(DocumentCreateUpdateDTO::getId)
+                .toList())
+                .stream()
+                .collect(Collectors.toMap(TraceableEntity::getId, Function.identity()));
+        List<DocumentUpdateResult> results = new ArrayList<>(dtos.size());
+        for (DocumentCreateUpdateDTO dto : dtos) {
+            var document = Objects.isNull(dto.getId()) ? null : documents.get(dto.getId());
+            DocumentUpdateResult failure = Objects.isNull(document)
+                    ? DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.NOT_FOUND,
+                            getDocumentNotFoundMsg(dto.getId()))
+                    : checkUpdate(dto);
+            if (Objects.isNull(failure)) {
+                results.add(DocumentUpdateResult.updated(updateDocument(document, dto)));
+            } else {
+                results.add(failure);
+            }
+        }
+        if (results.stream().anyMatch(DocumentUpdateResult::isUpdated)) {
+            documentDAO.flush();
+        }
+        Log.info(CLASS_NAME, "Exited updateDocumentsInBulk method", null);
+        return results;
+    }
+
+    /**
+     * Checks the references of the DTO which {@link #updateDocument} requires.
+     * The existence of types and mime types is taken from the
+     * {@link ReferenceDataCache}.
+     *
+     * @param dto a {@link DocumentCreateUpdateDTO}
+     * @return the failure or {@code null} if the DTO can be applied
+     */
+    private DocumentUpdateResult checkUpdate(DocumentCreateUpdateDTO dto) {
+        if (Objects.isNull(dto.getChannel())) {
+            return DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.INVALID,
+                    "The channel of the document is required.");
+        }
+        if (Objects.isNull(dto.getTypeId())) {
+            return DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.INVALID,
+                    "The type of the document is required.");
+        }
+        if (!referenceDataCache.documentTypeExists(dto.getTypeId())) {
+            return DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.NOT_FOUND,
+                    String.format("The document type with ID %s was not found.", dto.getTypeId()));
+        }
+        for (AttachmentCreateUpdateDTO attachment : Objects.requireNonNullElse(dto.getAttachments(),
+                List.<AttachmentCreateUpdateDTO> of())) {
+            if (Objects.isNull(attachment.getMimeTypeId())) {
+                return DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.INVALID,
+                        "The mime type of the attachment is required.");
+            }
+            if (!referenceDataCache.supportedMimeTypeExists(attachment.getMimeTypeId())) {
+                return DocumentUpdateResult.failed(dto.getId(), DocumentUpdateResult.Status.NOT_FOUND,
+                        getSupportedMimeTypeNotFoundMsg(attachment.getMimeTypeId()));
+            }
+        }
+        return null;
+    }
+
     public InputStream getObjectFromObjectStore(String objectId)
             throws IOException, InvalidKeyException, InvalidResponseException, InsufficientDataException,
             NoSuchAlgorithmException, ServerException, InternalException, XmlParserException, ErrorResponseException {
@@ -275,6 +413,22 @@ public class DocumentService {
         return minioClient.getObject(getObjectArgs);
     }
 
+    /**
+     * Builds the download response of the attachment's file, honoring range and
+     * conditional request headers.
+     *
+     * @param attachmentId the attachment id which is the object name
+     * @param conditions the range and conditional request headers
+     * @return the response builder
+     */
+    public Response.ResponseBuilder downloadAttachmentFile(String attachmentId, DownloadConditions conditions)
+            throws IOException, InvalidKeyException, InvalidResponseException, InsufficientDataException,
+            NoSuchAlgorithmException, ServerException, InternalException, XmlParserException, ErrorResponseException {
+        Log.info(CLASS_NAME, "Entered downloadAttachmentFile method", null);
+        Log.info(CLASS_NAME, "Exited downloadAttachmentFile method", null);
+        return objectDownloadService.download(bucketFolder, attachmentId, conditions);
+    }
+
     @Transactional
     public void updateAttachmentStatusInBulk(List<String> attachmentIds) {
         Log.info(CLASS_NAME, "Entered updateAttachmentStatusInBulk method", null);
@@ -289,44 +443,21 @@ public class DocumentService {
         Log.info(CLASS_NAME, "Exited updateAttachmentStatusInBulk method", null);
     }
 
-    @Transactional(Transactional.TxType.NOT_SUPPORTED)
-    public void asyncDeleteForAttachments(String attachmentId) {
-        Log.info(CLASS_NAME, "Entered asyncDeleteForAttachments method", null);
-        Uni.createFrom().item(attachmentId).emitOn(Infrastructure.getDefaultWorkerPool()).subscribe().with(
-                this::deleteFileInAttachmentAsync, Throwable::printStackTrace);
-        Log.info(CLASS_NAME, "Entered asyncDeleteForAttachments method", null);
-    }
-
-    public void deleteFileInAttachmentAsync(String attachmentId) {
-        Log.info(CLASS_NAME, "Entered deleteFileInAttachmentAsync method", null);
-        try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(bucketFolder)
-                            .object(attachmentId)
-                            .build());
-        } catch (ErrorResponseException | InsufficientDataException | InternalException | InvalidKeyException
-                | InvalidResponseException | IOException | NoSuchAlgorithmException | ServerException
-                | XmlParserException e) {
-            var minioAuditLog = new MinioAuditLog();
-            minioAuditLog.setAttachmentId(attachmentId);
-            minioAuditLogDAO.create(minioAuditLog);
-            throw new CustomException("An error occurred while deleting the attachment file.", e);
-        }
-        Log.info(CLASS_NAME, "Exited deleteFileInAttachmentAsync method", null);
-    }
-
+    /**
+     * Deletes the documents by set-based statements. The files of their
+     * attachments are written to the object deletion outbox in the same
+     * transaction and deleted from the object storage once it committed.
+     *
+     * @param documentIds the ids of existing documents
+     */
     @Transactional
-    public List<String> getFilesIdToBeDeletedInDocument(Document document) {
-        Log.info(CLASS_NAME, "Entered getFilesIdToBeDeletedInDocument method", null);
-        if (!Objects.isNull(document.getAttachments())) {
-            List<String> attachmentIds = document.getAttachments().stream().map(TraceableEntity::getId)
-                    .toList();
-            updateAttachmentStatusInBulk(attachmentIds);
-            Log.info(CLASS_NAME, "Exited getFilesIdToBeDeletedInDocument method", null);
-            return attachmentIds;
-        }
-        return Collections.emptyList();
+    public void deleteDocuments(Collection<String> documentIds) {
+        Log.info(CLASS_NAME, "Entered deleteDocuments method", null);
+        List<String> channelNames = channelDAO.findNamesByDocumentIds(documentIds);
+        List<String> objectKeys = documentDAO.deleteDocumentsByIds(documentIds);
+        objectDeletionOutboxService.enqueue(objectKeys);
+        invalidateChannelsIfNamesRemoved(channelNames);
+        Log.info(CLASS_NAME, "Exited deleteDocuments method", null);
     }
 
     /**
@@ -339,7 +470,7 @@ public class DocumentService {
     private void setType(DocumentCreateUpdateDTO dto, Document document) {
 
         Log.info(CLASS_NAME, "Entered setType method", null);
-        var documentType = typeDAO.findById(dto.getTypeId());
+        var documentType = referenceDataCache.findDocumentType(dto.getTypeId());
         if (Objects.isNull(documentType)) {
             throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND,
                     getDocumentNotFoundMsg(dto.getTypeId()));
@@ -380,7 +511,7 @@ public class DocumentService {
      */
     private SupportedMimeType getSupportedMimeType(AttachmentCreateUpdateDTO dto) {
         Log.info(CLASS_NAME, "Entered getSupportedMimeType method", null);
-        SupportedMimeType mimeType = mimeTypeDAO.findById(dto.getMimeTypeId());
+        SupportedMimeType mimeType = referenceDataCache.findSupportedMimeType(dto.getMimeTypeId());
         if (Objects.isNull(mimeType)) {
             throw new RestException(Response.Status.NOT_FOUND, Response.Status.NOT_FOUND,
                     getSupportedMimeTypeNotFoundMsg(dto.getMimeTypeId()));
@@ -416,6 +547,32 @@ public class DocumentService {
         Log.info(CLASS_NAME, "Exited setAttachments method", null);
     }
 
+    /**
+     * Invalidates the cached channel list if the name of the channel is not in
+     * it. Other changes of the channels, e.g. a new channel of a listed name, are
+     * picked up when the cache expires.
+     *
+     * @param channel the {@link Channel} of a created or updated document
+     */
+    private void invalidateChannelsIfNameAdded(Channel channel) {
+        if (Objects.nonNull(channel) && Objects.nonNull(channel.getName())
+                && !referenceDataCache.containsChannelName(channel.getName())) {
+            referenceDataCache.invalidate(ReferenceDataCache.Type.CHANNEL);
+        }
+    }
+
+    /**
+     * Invalidates the cached channel list if no channel of one of the names is
+     * left.
+     *
+     * @param channelNames the names of changed or deleted channels
+     */
+    private void invalidateChannelsIfNamesRemoved(Collection<String> channelNames) {
+        if (channelNames.stream().anyMatch(name -> !channelDAO.existsByNameIgnoreCase(name))) {
+            referenceDataCache.invalidate(ReferenceDataCache.Type.CHANNEL);
+        }
+    }
+
     /**
      * Updates {@link Channel} in {@link Document} or creates new {@link Channel}
      * and sets in {@link Document}.
@@ -469,15 +626,13 @@ public class DocumentService {
     private void updateAttachmentsInDocument(Document document, DocumentCreateUpdateDTO updateDTO) {
         Log.info(CLASS_NAME, "Entered updateAttachmentsInDocument method", null);
         if (Objects.nonNull(updateDTO.getAttachments())) {
-            for (Iterator<Attachment> i = document.getAttachments().iterator(); i.hasNext();) {
-                Attachment entity = i.next();
-                Optional<AttachmentCreateUpdateDTO> dtoOptional = updateDTO.getAttachments().stream()
-                        .filter(dto -> dto.getId() != null)
-                        .filter(dto -> entity.getId().equals(dto.getId()))
-                        .findFirst();
-                if (dtoOptional.isPresent()) {
-                    var mimeType = getSupportedMimeType(dtoOptional.get());
-                    documentMapper.updateAttachment(dtoOptional.get(), entity);
+            Map<String, AttachmentCreateUpdateDTO> dtosById = documentMapper.indexById(updateDTO.getAttachments(),
+                    AttachmentCreateUpdateDTO::getId);
+            for (Attachment entity : document.getAttachments()) {
+                var dto = dtosById.get(entity.getId());
+                if (Objects.nonNull(dto)) {
+                    var mimeType = getSupportedMimeType(dto);
+                    documentMapper.updateAttachment(dto, entity);
                     entity.setMimeType(mimeType);
                 }
             }
@@ -486,14 +641,23 @@ public class DocumentService {
         Log.info(CLASS_NAME, "Exited updateAttachmentsInDocument method", null);
     }
 
-    private void uploadFileToObjectStorage(byte[] fileBytes, String id)
+    /**
+     * Streams the file to the object storage. The MinIO client reads the stream
+     * part by part, so at most one part of {@code minio.upload.part-size} bytes
+     * is held in memory regardless of the file size.
+     *
+     * @param inputStream the file content
+     * @param size the file size or -1 if unknown
+     * @param id the object name
+     */
+    private void uploadFileToObjectStorage(InputStream inputStream, long size, String id)
             throws IOException, InvalidKeyException, InvalidResponseException, InsufficientDataException,
             NoSuchAlgorithmException, ServerException, InternalException, XmlParserException, ErrorResponseException {
         Log.info(CLASS_NAME, "Entered uploadFileToObjectStorage method", null);
         minioClient.putObject(PutObjectArgs.builder()
                 .bucket(bucketFolder)
                 .object(id)
-                .stream(new ByteArrayInputStream(fileBytes), fileBytes.length, -1)
+                .stream(inputStream, size, uploadPartSize)
                 .build());
         Log.info(CLASS_NAME, "Exited uploadFileToObjectStorage method", null);
 
@@ -0,0 +1,91 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
+import org.onecx.document.management.domain.daos.DocumentDAO;
+import org.onecx.document.management.domain.models.entities.Document;
+import org.onecx.document.management.rs.v1.mappers.DocumentMapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.logging.Log;
+
+/**
+ * Writes search results as JSON while they are read from the database, so
+ * only a few documents are held in memory regardless of how many match.
+ */
+@ApplicationScoped
+public class DocumentStreamService {
+
+    @Inject
+    DocumentDAO documentDAO;
+
+    @Inject
+    DocumentMapper documentMapper;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "document.stream.fetch-size", defaultValue = "100")
+    int fetchSize;
+
+    @ConfigProperty(name = "document.stream.clear-interval", defaultValue = "100")
+    int clearInterval;
+
+    private static final String CLASS_NAME = "DocumentStreamService";
+
+    /**
+     * Writes the documents matching the criteria either as one JSON array or as
+     * newline delimited JSON with one document per line. The persistence context
+     * is cleared every {@code document.stream.clear-interval} documents.
+     *
+     * @param criteria the {@link DocumentSearchCriteria}
+     * @param output the output
+     * @param ndjson true for newline delimited JSON
+     * @throws IOException if the output could not be written
+     */
+    @Transactional
+    public void writeDocuments(DocumentSearchCriteria criteria, OutputStream output, boolean ndjson)
+            throws IOException {
+        Log.info(CLASS_NAME, "Entered writeDocuments method", null);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+                Stream<Document> documents = documentDAO.streamAllDocumentsBySearchCriteria(criteria, fetchSize)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+            long count = 0;
+            for (Iterator<Document> iterator = documents.iterator(); iterator.hasNext();) {
+                writer.writeValue(generator, documentMapper.mapDetail(iterator.next()));
+                if (++count % clearInterval == 0) {
+                    /* The written documents are not needed anymore */
+                    documentDAO.getEntityManager().clear();
+                    generator.flush();
+                }
+            }
+            if (ndjson) {
+                if (count > 0) {
+                    generator.writeRaw('\n');
+                }
+            } else {
+                generator.writeEndArray();
+            }
+        }
+        Log.info(CLASS_NAME, "Exited writeDocuments method", null);
+    }
+}
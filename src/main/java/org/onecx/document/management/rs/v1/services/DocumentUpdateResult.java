@@ -0,0 +1,33 @@
+package org.onecx.document.management.rs.v1.services;
+
+import org.onecx.document.management.domain.models.entities.Document;
+
+/**
+ * The result of one item of a bulk document update.
+ *
+ * @param id the document id of the item
+ * @param status the outcome of the item
+ * @param message the reason of a failure, {@code null} if the document was
+ *        updated
+ * @param document the updated document, {@code null} if the item failed
+ */
+public record DocumentUpdateResult(String id, Status status, String message, Document document) {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    public static DocumentUpdateResult updated(Document document) {
+        return new DocumentUpdateResult(document.getId(), Status.UPDATED, null, document);
+    }
+
+    public static DocumentUpdateResult failed(String id, Status status, String message) {
+        return new DocumentUpdateResult(id, status, message, null);
+    }
+
+    public boolean isUpdated() {
+        return status == Status.UPDATED;
+    }
+}
@@ -0,0 +1,23 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The range and conditional request headers of a file download.
+ *
+ * @param range the {@code Range} header
+ * @param ifRange the {@code If-Range} header
+ * @param ifNoneMatch the {@code If-None-Match} header
+ * @param ifModifiedSince the {@code If-Modified-Since} header
+ */
+public record DownloadConditions(String range, String ifRange, String ifNoneMatch, String ifModifiedSince) {
+
+    /**
+     * @return true if any of the headers is set and the object metadata is
+     *         needed before the download
+     */
+    public boolean isPresent() {
+        return Stream.of(range, ifRange, ifNoneMatch, ifModifiedSince).anyMatch(Objects::nonNull);
+    }
+}
@@ -1,7 +1,6 @@
 package org.onecx.document.management.rs.v1.services;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -10,21 +9,34 @@ import java.io.InputStream;
 import java.net.URLConnection;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.Response;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import gen.org.onecx.document.management.rs.v1.model.FileDeleteResultDTO;
+import gen.org.onecx.document.management.rs.v1.model.FileDeleteStatusDTO;
 import gen.org.onecx.document.management.rs.v1.model.FileInfoDTO;
 import io.minio.BucketExistsArgs;
-import io.minio.GetObjectArgs;
-import io.minio.GetObjectResponse;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
 import io.minio.StatObjectArgs;
 import io.minio.errors.ErrorResponseException;
 import io.minio.errors.InsufficientDataException;
@@ -32,6 +44,8 @@ import io.minio.errors.InternalException;
 import io.minio.errors.InvalidResponseException;
 import io.minio.errors.ServerException;
 import io.minio.errors.XmlParserException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.quarkus.logging.Log;
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,22 +55,46 @@ public class FileService {
     @Inject
     MinioClient minioClient;
 
+    @Inject
+    ObjectDownloadService objectDownloadService;
+
+    @ConfigProperty(name = "minio.upload.part-size", defaultValue = "5242880")
+    long uploadPartSize;
+
+    @ConfigProperty(name = "minio.upload.buffer-size", defaultValue = "8192")
+    int uploadBufferSize;
+
     private static final String CLASS_NAME = "FileService";
 
+    private static final String NO_SUCH_BUCKET = "NoSuchBucket";
+
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+
+    private static final String NO_SUCH_VERSION = "NoSuchVersion";
+
+    private static final String BUCKET_ALREADY_OWNED_BY_YOU = "BucketAlreadyOwnedByYou";
+
+    /* Buckets known to exist */
+    private final Set<String> knownBuckets = ConcurrentHashMap.newKeySet();
+
+    /* The checks of buckets in progress, so only one thread checks and creates a new bucket */
+    private final ConcurrentMap<String, CompletableFuture<Void>> bucketChecks = new ConcurrentHashMap<>();
+
     @Transactional
     public FileInfoDTO uploadFile(String path, File file, String bucket)
             throws IOException, ServerException, InsufficientDataException, NoSuchAlgorithmException, InternalException,
             InvalidResponseException, XmlParserException, InvalidKeyException, ErrorResponseException {
         Log.info(CLASS_NAME, "Entered uploadFile method", null);
-        InputStream is = new BufferedInputStream(new FileInputStream(file));
-        String contentType = URLConnection.guessContentTypeFromStream(is);
-
-        if (Objects.isNull(contentType)) {
-            contentType = "application/octet-stream";
+        String contentType;
+        try {
+            contentType = uploadFileToBucket(path, file, bucket.toLowerCase(Locale.ROOT));
+        } catch (ErrorResponseException e) {
+            if (!NO_SUCH_BUCKET.equals(e.errorResponse().code())) {
+                throw e;
+            }
+            /* The cached bucket was deleted in the meantime, it is created again */
+            contentType = uploadFileToBucket(path, file, bucket.toLowerCase(Locale.ROOT));
         }
-        byte[] fileBytes = is.readAllBytes();
-        uploadFileToObjectStorage(fileBytes, path, bucket.toLowerCase(Locale.ROOT), contentType);
-        is.close();
         Log.info(CLASS_NAME, "Exited uploadFile method", null);
         FileInfoDTO response = new FileInfoDTO();
         response.setBucket(bucket.toLowerCase(Locale.ROOT));
@@ -65,88 +103,270 @@ public class FileService {
         return response;
     }
 
-    public GetObjectResponse downloadFile(String path, String bucket) throws ServerException, InsufficientDataException,
-            ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
-            InvalidResponseException, XmlParserException, InternalException {
+    private String uploadFileToBucket(String path, File file, String bucket)
+            throws IOException, ServerException, InsufficientDataException, NoSuchAlgorithmException, InternalException,
+            InvalidResponseException, XmlParserException, InvalidKeyException, ErrorResponseException {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file), uploadBufferSize)) {
+            String contentType = URLConnection.guessContentTypeFromStream(is);
+            if (Objects.isNull(contentType)) {
+                contentType = "application/octet-stream";
+            }
+            uploadFileToObjectStorage(is, file.length(), path, bucket, contentType);
+            return contentType;
+        }
+    }
+
+    public Response.ResponseBuilder downloadFile(String path, String bucket, DownloadConditions conditions)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException,
+            InternalException {
         Log.info(CLASS_NAME, "Entered downloadFile method", null);
         Log.info(CLASS_NAME, "Exited downloadFile method", null);
-        return downloadFileFromObjectStorage(path, bucket.toLowerCase(Locale.ROOT));
+        return objectDownloadService.download(bucket.toLowerCase(Locale.ROOT), path, conditions);
     }
 
+    /**
+     * @param versionId the version to delete, {@code null} for the current one
+     * @param ifMatch the ETags of which one has to match the file, or {@code *}
+     * @return false if the file does not match {@code ifMatch} and was kept
+     */
     @Transactional
-    public void deleteFile(String fileId, String bucketName) throws InvalidKeyException, ErrorResponseException,
-            InsufficientDataException, InternalException, InvalidResponseException, NoSuchAlgorithmException,
-            ServerException, XmlParserException, IllegalArgumentException, IOException {
+    public boolean deleteFile(String fileId, String bucketName, String versionId, String ifMatch)
+            throws InvalidKeyException, ErrorResponseException, InsufficientDataException, InternalException,
+            InvalidResponseException, NoSuchAlgorithmException, ServerException, XmlParserException,
+            IllegalArgumentException, IOException {
         Log.info(CLASS_NAME, "Entered deleteFile method", null);
-        deleteFileFromObjectStorage(fileId, bucketName);
+        String bucket = bucketName.toLowerCase(Locale.ROOT);
+        if (Objects.nonNull(ifMatch) && !matchesETag(fileId, bucket, versionId, ifMatch)) {
+            Log.info(CLASS_NAME, "Exited deleteFile method", null);
+            return false;
+        }
+        deleteFileFromObjectStorage(fileId, bucket, versionId, ifMatch);
         Log.info(CLASS_NAME, "Exited deleteFile method", null);
+        return true;
     }
 
+    /**
+     * Deletes the files with multi-object delete requests of at most
+     * {@value ObjectStorageDeletionService#MAX_BATCH_SIZE} paths.
+     *
+     * @param paths the paths, duplicates are deleted once
+     * @param bucketName the bucket name
+     * @return the result per distinct path
+     */
+    public List<FileDeleteResultDTO> deleteFiles(List<String> paths, String bucketName) {
+        Log.info(CLASS_NAME, "Entered deleteFiles method", null);
+        String bucket = bucketName.toLowerCase(Locale.ROOT);
+        List<String> distinctPaths = paths.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, FileDeleteResultDTO> results = new LinkedHashMap<>();
+        for (int from = 0; from < distinctPaths.size(); from += ObjectStorageDeletionService.MAX_BATCH_SIZE) {
+            deleteFilesBatch(distinctPaths.subList(from,
+                    Math.min(from + ObjectStorageDeletionService.MAX_BATCH_SIZE, distinctPaths.size())),
+                    bucket, results);
+        }
+        Log.info(CLASS_NAME, "Exited deleteFiles method", null);
+        return List.copyOf(results.values());
+    }
+
+    private void deleteFilesBatch(List<String> batch, String bucketName, Map<String, FileDeleteResultDTO> results) {
+        batch.forEach(path -> results.put(path, fileDeleteResult(path, FileDeleteStatusDTO.DELETED, null)));
+        Iterable<Result<DeleteError>> errors = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(batch.stream().map(DeleteObject::new).toList())
+                .build());
+        try {
+            /* Only the paths which could not be deleted are returned */
+            for (Result<DeleteError> result : errors) {
+                DeleteError error = result.get();
+                results.put(error.objectName(), fileDeleteResult(error.objectName(),
+                        isNotFound(error.code()) ? FileDeleteStatusDTO.NOT_FOUND : FileDeleteStatusDTO.FAILED,
+                        error.message()));
+            }
+        } catch (ErrorResponseException e) {
+            invalidateMissingBucket(bucketName, e);
+            FileDeleteStatusDTO status = isNotFound(e.errorResponse().code()) ? FileDeleteStatusDTO.NOT_FOUND
+                    : FileDeleteStatusDTO.FAILED;
+            batch.forEach(path -> results.put(path, fileDeleteResult(path, status, e.errorResponse().message())));
+        } catch (InsufficientDataException | InternalException | InvalidKeyException | InvalidResponseException
+                | IOException | NoSuchAlgorithmException | ServerException | XmlParserException e) {
+            Log.error("Failed to delete a batch of " + batch.size() + " files", e);
+            batch.forEach(path -> results.put(path, fileDeleteResult(path, FileDeleteStatusDTO.FAILED,
+                    e.getMessage())));
+        }
+    }
+
+    private static FileDeleteResultDTO fileDeleteResult(String path, FileDeleteStatusDTO status, String message) {
+        FileDeleteResultDTO result = new FileDeleteResultDTO();
+        result.setPath(path);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
+    }
+
+    /**
+     * Checks the ETag before the delete, the {@code If-Match} header of the
+     * delete request itself is not evaluated by every object storage. A missing
+     * file or version does not match.
+     */
+    private boolean matchesETag(String objectId, String bucketName, String versionId, String ifMatch)
+            throws InvalidKeyException, ErrorResponseException, InsufficientDataException, InternalException,
+            InvalidResponseException, NoSuchAlgorithmException, ServerException, XmlParserException,
+            IOException {
+        String etag;
+        try {
+            etag = minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectId)
+                    .versionId(versionId)
+                    .build()).etag();
+        } catch (ErrorResponseException e) {
+            invalidateMissingBucket(bucketName, e);
+            if (NO_SUCH_BUCKET.equals(e.errorResponse().code())) {
+                throw new FileNotFoundException(
+                        String.format("The Minio bucket '%s' does not exist", bucketName));
+            }
+            if (isNotFound(e.errorResponse().code())) {
+                return false;
+            }
+            throw e;
+        }
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> "*".equals(tag) || etag.equals(unquote(tag)));
+    }
+
+    private static String unquote(String tag) {
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            return tag.substring(1, tag.length() - 1);
+        }
+        return tag;
+    }
+
+    /**
+     * @param code the error code of the object storage
+     * @return whether the code reports a missing bucket, object or version
+     */
+    private static boolean isNotFound(String code) {
+        return NO_SUCH_BUCKET.equals(code) || NO_SUCH_KEY.equals(code) || NO_SUCH_VERSION.equals(code);
+    }
+
+    /**
+     * Creates the bucket if it does not exist yet. Buckets which are known to
+     * exist are cached, so only the first call per bucket costs a round trip.
+     * Concurrent first calls for the same bucket wait for one check instead of
+     * racing on the creation, and check it themselves only if that one failed.
+     * The check is forgotten once it completed, so failing bucket names do not
+     * accumulate.
+     *
+     * @param bucket the bucket name
+     */
     public void checkAndCreateBucket(String bucket) throws ServerException, InsufficientDataException,
             ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
             InvalidResponseException, XmlParserException, InternalException {
         Log.info(CLASS_NAME, "Entered checkAndCreateBucket method", null);
+        if (!knownBuckets.contains(bucket)) {
+            var check = new CompletableFuture<Void>();
+            CompletableFuture<Void> pending = bucketChecks.putIfAbsent(bucket, check);
+            if (Objects.nonNull(pending)) {
+                pending.exceptionally(e -> null).join();
+                if (!knownBuckets.contains(bucket)) {
+                    createBucketIfMissing(bucket);
+                    knownBuckets.add(bucket);
+                }
+            } else {
+                try {
+                    createBucketIfMissing(bucket);
+                    knownBuckets.add(bucket);
+                    check.complete(null);
+                } catch (Exception e) {
+                    check.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    bucketChecks.remove(bucket, check);
+                }
+            }
+        }
+        Log.info(CLASS_NAME, "Exited checkAndCreateBucket method", null);
+    }
+
+    private void createBucketIfMissing(String bucket) throws ServerException, InsufficientDataException,
+            ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
+            InvalidResponseException, XmlParserException, InternalException {
         boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build());
         if (!found) {
-            minioClient.makeBucket(
-                    MakeBucketArgs.builder()
-                            .bucket(bucket)
-                            .build());
+            try {
+                minioClient.makeBucket(
+                        MakeBucketArgs.builder()
+                                .bucket(bucket)
+                                .build());
+            } catch (ErrorResponseException e) {
+                /* Created by another pod in the meantime */
+                if (!BUCKET_ALREADY_OWNED_BY_YOU.equals(e.errorResponse().code())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the bucket from the cache if the object storage reported it as
+     * missing, so the next upload creates it again.
+     */
+    private void invalidateMissingBucket(String bucket, ErrorResponseException e) {
+        if (NO_SUCH_BUCKET.equals(e.errorResponse().code())) {
+            knownBuckets.remove(bucket);
         }
-        Log.info(CLASS_NAME, "Exited checkAndCreateBucket method", null);
     }
 
-    private void uploadFileToObjectStorage(byte[] fileBytes, String object, String bucket, String contentType)
+    private void uploadFileToObjectStorage(InputStream inputStream, long size, String object, String bucket,
+            String contentType)
             throws IOException, InvalidKeyException, InvalidResponseException, InsufficientDataException,
             NoSuchAlgorithmException, ServerException, InternalException, XmlParserException, ErrorResponseException {
         Log.info(CLASS_NAME, "Entered uploadFileToObjectStorage method", null);
         checkAndCreateBucket(bucket);
-        minioClient.putObject(PutObjectArgs.builder()
-                .bucket(bucket)
-                .object(object)
-                .stream(new ByteArrayInputStream(fileBytes), fileBytes.length, -1)
-                .contentType(contentType)
-                .build());
+        try {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .stream(inputStream, size, uploadPartSize)
+                    .contentType(contentType)
+                    .build());
+        } catch (ErrorResponseException e) {
+            invalidateMissingBucket(bucket, e);
+            throw e;
+        }
         Log.info(CLASS_NAME, "Exited uploadFileToObjectStorage method", null);
 
     }
 
-    private GetObjectResponse downloadFileFromObjectStorage(String object, String bucket) throws ServerException,
-            InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException,
-            InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
-        Log.info(CLASS_NAME, "Entered downloadFileFromObjectStorage method", null);
-        Log.info(CLASS_NAME, "Exited downloadFileFromObjectStorage method", null);
-        return minioClient.getObject(GetObjectArgs.builder()
-                .bucket(bucket)
-                .object(object)
-                .build());
-    }
-
-    private void deleteFileFromObjectStorage(String objectId, String bucketName) throws InvalidKeyException,
-            ErrorResponseException, InsufficientDataException, InternalException, InvalidResponseException,
-            NoSuchAlgorithmException, ServerException, XmlParserException, IllegalArgumentException, IOException {
+    /**
+     * Deletes the file with a single request. The object storage reports a
+     * missing file only for a given version or ETag, or if the bucket is
+     * missing.
+     */
+    private void deleteFileFromObjectStorage(String objectId, String bucketName, String versionId, String ifMatch)
+            throws InvalidKeyException, ErrorResponseException, InsufficientDataException, InternalException,
+            InvalidResponseException, NoSuchAlgorithmException, ServerException, XmlParserException,
+            IllegalArgumentException, IOException {
         Log.info(CLASS_NAME, "Entered deleteFileFromObjectStorage method", null);
-        boolean objectExists = isObjectPresent(objectId, bucketName);
-        if (objectExists) {
-            minioClient.removeObject(RemoveObjectArgs.builder()
-                    .bucket(bucketName)
-                    .object(objectId)
-                    .build());
-        } else {
-            throw new FileNotFoundException(
-                    String.format("The file '%s' is not present in the Minio bucket '%s'", objectId, bucketName));
+        var args = RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectId)
+                .versionId(versionId);
+        if (Objects.nonNull(ifMatch)) {
+            args.extraHeaders(Map.of("If-Match", ifMatch));
         }
-        Log.info(CLASS_NAME, "Exited deleteFileFromObjectStorage method", null);
-
-    }
-
-    private boolean isObjectPresent(String objectId, String bucketName) {
         try {
-            minioClient.statObject(StatObjectArgs.builder().bucket(bucketName).object(objectId).build());
-            return true;
-        } catch (Exception e) {
-            return false;
+            minioClient.removeObject(args.build());
+        } catch (ErrorResponseException e) {
+            invalidateMissingBucket(bucketName, e);
+            if (isNotFound(e.errorResponse().code())) {
+                throw new FileNotFoundException(
+                        String.format("The file '%s' is not present in the Minio bucket '%s'", objectId, bucketName));
+            }
+            throw e;
         }
+        Log.info(CLASS_NAME, "Exited deleteFileFromObjectStorage method", null);
     }
 
 }
@@ -0,0 +1,99 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
+import org.onecx.document.management.domain.models.entities.MinioAuditLog;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Retries the deletion of the objects recorded in the {@link MinioAuditLog}.
+ * The table is swept in chunks ordered by id, each chunk in its own
+ * transaction with one multi-object delete request. The records of a chunk are
+ * locked with {@code FOR UPDATE SKIP LOCKED}, so several pods sweep the table
+ * at the same time without handling a record twice. A chunk may claim fewer
+ * records than its size while records locked by another pod are skipped, so a
+ * run only stops when a chunk claims no record after the last id or its time
+ * budget is used up; the rest is swept by the next run.
+ */
+@ApplicationScoped
+public class MinioAuditLogSweepService {
+
+    @Inject
+    MinioAuditLogDAO minioAuditLogDAO;
+
+    @Inject
+    ObjectStorageDeletionService objectStorageDeletionService;
+
+    @ConfigProperty(name = "minio.audit-log.sweep.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "minio.audit-log.sweep.time-budget", defaultValue = "PT30M")
+    Duration timeBudget;
+
+    private static final String CLASS_NAME = "MinioAuditLogSweepService";
+
+    /**
+     * Sweeps the table chunk by chunk until it is exhausted or the time budget is
+     * used up.
+     *
+     * @return the number of records whose object was deleted
+     */
+    public long sweep() {
+        Log.info(CLASS_NAME, "Entered sweep method", null);
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        int size = Math.max(1, Math.min(chunkSize, ObjectStorageDeletionService.MAX_BATCH_SIZE));
+        long deleted = 0;
+        String afterId = null;
+        SweptChunk chunk;
+        do {
+            chunk = sweepChunk(afterId, size);
+            deleted += chunk.deleted();
+            afterId = chunk.lastId();
+        } while (chunk.claimed() > 0 && System.nanoTime() < deadline);
+        Log.infof("Swept %d records of the minio audit log", deleted);
+        Log.info(CLASS_NAME, "Exited sweep method", null);
+        return deleted;
+    }
+
+    /**
+     * Deletes the objects of the next chunk and the records whose object could
+     * be deleted. The other records stay for the next run.
+     *
+     * @param afterId the last id of the previous chunk, {@code null} for the first
+     *        chunk
+     * @param size the max. number of records
+     * @return the swept chunk
+     */
+    @Transactional
+    public SweptChunk sweepChunk(String afterId, int size) {
+        List<MinioAuditLog> records = minioAuditLogDAO.lockRecordsAfterId(afterId, size);
+        if (records.isEmpty()) {
+            return new SweptChunk(afterId, 0, 0);
+        }
+        Set<String> failedKeys = new HashSet<>(objectStorageDeletionService.removeObjects(
+                records.stream().map(MinioAuditLog::getAttachmentId).toList()));
+        List<MinioAuditLog> deleted = records.stream()
+                .filter(auditRecord -> !failedKeys.contains(auditRecord.getAttachmentId()))
+                .toList();
+        minioAuditLogDAO.deleteRecords(deleted);
+        return new SweptChunk(records.get(records.size() - 1).getId(), records.size(), deleted.size());
+    }
+
+    /**
+     * @param lastId the id of the last record of the chunk
+     * @param claimed the number of records locked by the chunk
+     * @param deleted the number of records whose object was deleted
+     */
+    public record SweptChunk(String lastId, int claimed, int deleted) {
+    }
+}
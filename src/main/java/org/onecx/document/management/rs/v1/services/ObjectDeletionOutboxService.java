@@ -0,0 +1,199 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
+import org.onecx.document.management.domain.daos.ObjectDeletionOutboxDAO;
+import org.onecx.document.management.domain.models.entities.MinioAuditLog;
+import org.onecx.document.management.domain.models.entities.ObjectDeletionOutbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+
+/**
+ * Deletes objects from the object storage through the
+ * {@link ObjectDeletionOutbox}. The keys are written to the outbox in the
+ * transaction which deleted the rows referencing them, and a scheduled worker
+ * drains the outbox in batches. Failed keys are retried with an exponential
+ * backoff. Keys which still fail after {@code minio.delete.outbox.max-attempts}
+ * are moved to the {@link MinioAuditLog}.
+ */
+@ApplicationScoped
+public class ObjectDeletionOutboxService {
+
+    @Inject
+    ObjectDeletionOutboxDAO objectDeletionOutboxDAO;
+
+    @Inject
+    MinioAuditLogDAO minioAuditLogDAO;
+
+    @Inject
+    ObjectStorageDeletionService objectStorageDeletionService;
+
+    @Inject
+    ObjectStorageExecutor objectStorageExecutor;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "minio.delete.concurrency", defaultValue = "2")
+    int concurrency;
+
+    @ConfigProperty(name = "minio.delete.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "minio.delete.outbox.max-attempts", defaultValue = "10")
+    int maxAttempts;
+
+    @ConfigProperty(name = "minio.delete.outbox.initial-backoff", defaultValue = "PT10S")
+    Duration initialBackoff;
+
+    @ConfigProperty(name = "minio.delete.outbox.max-backoff", defaultValue = "PT1H")
+    Duration maxBackoff;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+
+    private Timer batchTimer;
+
+    private Timer deletionLatency;
+
+    private static final String CLASS_NAME = "ObjectDeletionOutboxService";
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("document.object.deletion.outbox.size", queueDepth, AtomicLong::get)
+                .description("Number of objects waiting to be deleted from the object storage")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("document.object.deletion.outbox.batch")
+                .description("Duration of draining one batch of the object deletion outbox")
+                .register(meterRegistry);
+        deletionLatency = Timer.builder("document.object.deletion.outbox.latency")
+                .description("Time from enqueuing an object until it was deleted from the object storage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the keys to the outbox in the current transaction. The objects are
+     * deleted by the worker once the transaction committed, nothing is deleted if
+     * it rolls back.
+     *
+     * @param keys the object names
+     */
+    @Transactional
+    public void enqueue(Collection<String> keys) {
+        Log.info(CLASS_NAME, "Entered enqueue method", null);
+        if (!keys.isEmpty()) {
+            objectDeletionOutboxDAO.enqueue(keys);
+        }
+        Log.info(CLASS_NAME, "Exited enqueue method", null);
+    }
+
+    /**
+     * Drains the due entries of the outbox with at most
+     * {@code minio.delete.concurrency} workers on the delete pool of the
+     * {@link ObjectStorageExecutor}.
+     */
+    @Scheduled(every = "${minio.delete.outbox.interval:10s}", concurrentExecution = SKIP)
+    void drain() {
+        List<CompletableFuture<Void>> workers = IntStream.range(0, Math.max(1, concurrency))
+                .mapToObj(i -> CompletableFuture.runAsync(this::drainDueEntries,
+                        objectStorageExecutor.getDeleteExecutor()))
+                .toList();
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Counts the entries of the outbox for the size gauge. The count reads the
+     * whole table, so it runs less often than the drain.
+     */
+    @Scheduled(every = "${minio.delete.outbox.size-interval:5m}", concurrentExecution = SKIP)
+    void updateQueueDepth() {
+        queueDepth.set(countEntries());
+    }
+
+    /**
+     * Drains batches until no more entries are due.
+     */
+    void drainDueEntries() {
+        int size = Math.max(1, Math.min(batchSize, ObjectStorageDeletionService.MAX_BATCH_SIZE));
+        while (drainBatch(size) == size) {
+            /* the next batch */
+        }
+    }
+
+    /**
+     * Deletes the objects of one batch of due entries. The entries stay locked
+     * until the transaction ends, so each entry is handled by one worker only.
+     *
+     * @param size the max. number of entries
+     * @return the number of entries handled
+     */
+    @Transactional
+    public int drainBatch(int size) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<ObjectDeletionOutbox> entries = objectDeletionOutboxDAO.lockDueEntries(LocalDateTime.now(), size);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Set<String> failedKeys = new HashSet<>(objectStorageDeletionService.removeObjects(
+                entries.stream().map(ObjectDeletionOutbox::getObjectKey).toList()));
+        var now = LocalDateTime.now();
+        List<ObjectDeletionOutbox> done = new ArrayList<>();
+        for (ObjectDeletionOutbox entry : entries) {
+            if (!failedKeys.contains(entry.getObjectKey())) {
+                deletionLatency.record(Duration.between(entry.getCreationDate(), now));
+                done.add(entry);
+            } else if (entry.getAttempts() + 1 >= maxAttempts) {
+                Log.warnf("Giving up deleting object %s after %d attempts", entry.getObjectKey(), maxAttempts);
+                var minioAuditLog = new MinioAuditLog();
+                minioAuditLog.setAttachmentId(entry.getObjectKey());
+                minioAuditLogDAO.create(minioAuditLog);
+                done.add(entry);
+            } else {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+            }
+        }
+        objectDeletionOutboxDAO.deleteEntries(done);
+        sample.stop(batchTimer);
+        return entries.size();
+    }
+
+    @Transactional
+    public long countEntries() {
+        return objectDeletionOutboxDAO.countEntries();
+    }
+
+    /**
+     * @param attempts the number of failed attempts, at least 1
+     * @return the initial backoff doubled per further attempt, at most the max.
+     *         backoff
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff;
+        for (int i = 1; i < attempts && backoff.compareTo(maxBackoff) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+    }
+}
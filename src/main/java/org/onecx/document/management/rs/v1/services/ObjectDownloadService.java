@@ -0,0 +1,289 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.InsufficientDataException;
+import io.minio.errors.InternalException;
+import io.minio.errors.InvalidResponseException;
+import io.minio.errors.ServerException;
+import io.minio.errors.XmlParserException;
+import io.quarkus.logging.Log;
+
+/**
+ * Streams objects from the object storage to the HTTP response and implements
+ * the {@code Range}, {@code If-Range}, {@code If-None-Match} and
+ * {@code If-Modified-Since} request headers on top of the object's ETag and
+ * last modification date.
+ */
+@ApplicationScoped
+public class ObjectDownloadService {
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.download.buffer-size", defaultValue = "8192")
+    int downloadBufferSize;
+
+    private static final String CLASS_NAME = "ObjectDownloadService";
+
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    private static final String CONTENT_RANGE = "Content-Range";
+
+    private static final String BYTES = "bytes";
+
+    private static final String PRECONDITION_FAILED = "PreconditionFailed";
+
+    /* Downloads of an object which is overwritten meanwhile are retried */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d{0,18})-(\\d{0,18})$");
+
+    // Object metadata returned by MinIO which is passed through to the client.
+    private static final List<String> PASS_THROUGH_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    /**
+     * Builds the download response of the object. Without range or conditional
+     * headers the object is fetched with a single request. Otherwise its metadata
+     * is read first and, depending on the headers, a 304, 416, 206 with only the
+     * requested bytes or a 200 with the whole object is returned. If the object
+     * is overwritten between reading its metadata and fetching it, the download
+     * is retried, and answered with 412 if the object keeps changing.
+     *
+     * @param bucket the bucket
+     * @param object the object name
+     * @param conditions the range and conditional request headers
+     * @return the response builder
+     */
+    public Response.ResponseBuilder download(String bucket, String object, DownloadConditions conditions)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException,
+            NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException,
+            InternalException {
+        Log.info(CLASS_NAME, "Entered download method", null);
+        if (Objects.isNull(conditions) || !conditions.isPresent()) {
+            GetObjectResponse response = minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .build());
+            Response.ResponseBuilder builder = Response.ok(stream(response)).header(ACCEPT_RANGES, BYTES);
+            PASS_THROUGH_HEADERS.forEach(header -> {
+                String value = response.headers().get(header);
+                if (Objects.nonNull(value)) {
+                    builder.header(header, value);
+                }
+            });
+            Log.info(CLASS_NAME, "Exited download method", null);
+            return builder;
+        }
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                Response.ResponseBuilder builder = conditionalDownload(bucket, object, conditions);
+                Log.info(CLASS_NAME, "Exited download method", null);
+                return builder;
+            } catch (ErrorResponseException e) {
+                if (!PRECONDITION_FAILED.equals(e.errorResponse().code())) {
+                    throw e;
+                }
+                if (attempt >= MAX_ATTEMPTS) {
+                    Log.warnf("Object %s/%s changed during %d downloads", bucket, object, attempt);
+                    Log.info(CLASS_NAME, "Exited download method", null);
+                    return Response.status(Response.Status.PRECONDITION_FAILED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the metadata of the object and answers the conditional and range
+     * headers. The object is fetched only if its ETag is still the one of the
+     * metadata, so the headers of the response always describe the streamed
+     * bytes.
+     *
+     * @throws ErrorResponseException with the code {@code PreconditionFailed} if
+     *         the object was overwritten after its metadata was read
+     */
+    private Response.ResponseBuilder conditionalDownload(String bucket, String object,
+            DownloadConditions conditions) throws ServerException, InsufficientDataException,
+            ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
+            InvalidResponseException, XmlParserException, InternalException {
+        StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
+                .bucket(bucket)
+                .object(object)
+                .build());
+        String etag = "\"" + stat.etag() + "\"";
+        ZonedDateTime lastModified = stat.lastModified();
+        if (isNotModified(conditions, stat.etag(), lastModified)) {
+            return Response.notModified()
+                    .header(HttpHeaders.ETAG, etag)
+                    .header(HttpHeaders.LAST_MODIFIED, formatDate(lastModified));
+        }
+
+        long size = stat.size();
+        ByteRange range = null;
+        if (Objects.nonNull(conditions.range()) && isIfRangeSatisfied(conditions.ifRange(), stat.etag(), lastModified)) {
+            range = parseRange(conditions.range(), size);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, BYTES + " */" + size);
+        }
+
+        var args = GetObjectArgs.builder().bucket(bucket).object(object).matchETag(stat.etag());
+        if (Objects.nonNull(range)) {
+            args.offset(range.start()).length(range.length());
+        }
+        GetObjectResponse response = minioClient.getObject(args.build());
+        Response.ResponseBuilder builder;
+        if (Objects.nonNull(range)) {
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(stream(response))
+                    .header(CONTENT_RANGE, BYTES + " " + range.start() + "-" + range.end() + "/" + size)
+                    .header(HttpHeaders.CONTENT_LENGTH, range.length());
+        } else {
+            builder = Response.ok(stream(response)).header(HttpHeaders.CONTENT_LENGTH, size);
+        }
+        return builder.header(HttpHeaders.CONTENT_TYPE, stat.contentType())
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.LAST_MODIFIED, formatDate(lastModified))
+                .header(ACCEPT_RANGES, BYTES);
+    }
+
+    /**
+     * Copies the object chunk by chunk to the HTTP output and releases the MinIO
+     * connection once the copy finished.
+     */
+    private StreamingOutput stream(GetObjectResponse response) {
+        return output -> {
+            try (response) {
+                IOUtils.copy(response, output, downloadBufferSize);
+                output.flush();
+            }
+        };
+    }
+
+    /**
+     * {@code If-Modified-Since} is only evaluated when no {@code If-None-Match} is
+     * given (RFC 9110, 13.1.3).
+     */
+    static boolean isNotModified(DownloadConditions conditions, String etag, ZonedDateTime lastModified) {
+        if (Objects.nonNull(conditions.ifNoneMatch())) {
+            return Arrays.stream(conditions.ifNoneMatch().split(","))
+                    .map(String::trim)
+                    .anyMatch(tag -> "*".equals(tag) || etag.equals(unquote(tag)));
+        }
+        ZonedDateTime since = parseDate(conditions.ifModifiedSince());
+        return Objects.nonNull(since) && Objects.nonNull(lastModified)
+                && lastModified.toEpochSecond() <= since.toEpochSecond();
+    }
+
+    /**
+     * @return true if the {@code If-Range} header is absent or still matches the
+     *         object, i.e. the {@code Range} header must be honored
+     */
+    static boolean isIfRangeSatisfied(String ifRange, String etag, ZonedDateTime lastModified) {
+        if (Objects.isNull(ifRange)) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return etag.equals(unquote(value));
+        }
+        ZonedDateTime date = parseDate(value);
+        return Objects.nonNull(date) && Objects.nonNull(lastModified)
+                && date.toEpochSecond() == lastModified.toEpochSecond();
+    }
+
+    /**
+     * Parses a single byte range. Multiple ranges and syntactically invalid values
+     * are ignored and the whole object is returned.
+     *
+     * @return the range, {@code null} if it is ignored or
+     *         {@link ByteRange#UNSATISFIABLE}
+     */
+    static ByteRange parseRange(String header, long size) {
+        Matcher matcher = RANGE_PATTERN.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return null;
+        }
+        if (matcher.group(1).isEmpty()) {
+            long suffixLength = Long.parseLong(matcher.group(2));
+            if (suffixLength == 0 || size == 0) {
+                return ByteRange.UNSATISFIABLE;
+            }
+            return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+        }
+        long start = Long.parseLong(matcher.group(1));
+        long end = matcher.group(2).isEmpty() ? size - 1 : Long.parseLong(matcher.group(2));
+        if (end < start) {
+            return null;
+        }
+        if (start >= size) {
+            return ByteRange.UNSATISFIABLE;
+        }
+        return new ByteRange(start, Math.min(end, size - 1));
+    }
+
+    private static String unquote(String tag) {
+        String value = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static ZonedDateTime parseDate(String value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String formatDate(ZonedDateTime date) {
+        return Objects.isNull(date) ? null
+                : DateTimeFormatter.RFC_1123_DATE_TIME.format(date.withZoneSameInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * An inclusive byte range of an object.
+     */
+    record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+    }
+}
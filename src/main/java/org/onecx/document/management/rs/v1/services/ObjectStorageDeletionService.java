@@ -0,0 +1,99 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.InsufficientDataException;
+import io.minio.errors.InternalException;
+import io.minio.errors.InvalidResponseException;
+import io.minio.errors.ServerException;
+import io.minio.errors.XmlParserException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.quarkus.logging.Log;
+
+/**
+ * Deletes objects from the object storage with the multi-object delete API,
+ * i.e. one request per {@code minio.delete.batch-size} keys, at most
+ * {@value #MAX_BATCH_SIZE}. The response of such a request only lists the keys
+ * which could not be deleted. Retrying them is left to the caller, see
+ * {@link ObjectDeletionOutboxService}.
+ */
+@ApplicationScoped
+public class ObjectStorageDeletionService {
+
+    /* Max. number of keys of a multi-object delete request */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket.folder")
+    String bucketFolder;
+
+    @ConfigProperty(name = "minio.delete.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    private static final String CLASS_NAME = "ObjectStorageDeletionService";
+
+    /**
+     * Deletes the objects in batches. If a whole batch request fails, all keys
+     * of the batch are returned as failed.
+     *
+     * @param keys the object names, duplicates are deleted once and {@code null}
+     *        is ignored
+     * @return the keys which could not be deleted
+     */
+    public List<String> removeObjects(Collection<String> keys) {
+        Log.info(CLASS_NAME, "Entered removeObjects method", null);
+        List<String> distinctKeys = keys.stream().filter(Objects::nonNull).distinct().toList();
+        int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        Set<String> failedKeys = new LinkedHashSet<>();
+        for (int from = 0; from < distinctKeys.size(); from += size) {
+            failedKeys.addAll(deleteBatch(distinctKeys.subList(from, Math.min(from + size, distinctKeys.size()))));
+        }
+        Log.infof("Deleted %d of %d objects from the object storage", distinctKeys.size() - failedKeys.size(),
+                distinctKeys.size());
+        Log.info(CLASS_NAME, "Exited removeObjects method", null);
+        return List.copyOf(failedKeys);
+    }
+
+    private List<String> deleteBatch(List<String> batch) {
+        List<DeleteObject> objects = batch.stream().map(DeleteObject::new).toList();
+        Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketFolder)
+                .objects(objects)
+                .build());
+        List<String> failedKeys = new ArrayList<>();
+        try {
+            /* Only the keys which could not be deleted are returned */
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                Log.warnf("Failed to delete object %s: %s %s", error.objectName(), error.code(), error.message());
+                failedKeys.add(error.objectName());
+            }
+        } catch (ErrorResponseException | InsufficientDataException | InternalException | InvalidKeyException
+                | InvalidResponseException | IOException | NoSuchAlgorithmException | ServerException
+                | XmlParserException e) {
+            Log.error("Failed to delete a batch of " + batch.size() + " objects", e);
+            return batch;
+        }
+        return failedKeys;
+    }
+}
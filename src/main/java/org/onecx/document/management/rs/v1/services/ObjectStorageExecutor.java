@@ -0,0 +1,80 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded thread pools used to run the blocking MinIO client calls in
+ * parallel. The pools are shared by all requests, so the number of concurrent
+ * object storage calls per pod never exceeds the configured size.
+ */
+@ApplicationScoped
+public class ObjectStorageExecutor {
+
+    @ConfigProperty(name = "minio.upload.concurrency", defaultValue = "4")
+    int uploadConcurrency;
+
+    @ConfigProperty(name = "minio.download.concurrency", defaultValue = "4")
+    int downloadConcurrency;
+
+    @ConfigProperty(name = "minio.delete.concurrency", defaultValue = "2")
+    int deleteConcurrency;
+
+    private ExecutorService uploadExecutor;
+
+    private ExecutorService downloadExecutor;
+
+    private ExecutorService deleteExecutor;
+
+    @PostConstruct
+    void init() {
+        uploadExecutor = Executors.newFixedThreadPool(uploadConcurrency, threadFactory("minio-upload"));
+        downloadExecutor = Executors.newFixedThreadPool(downloadConcurrency, threadFactory("minio-download"));
+        deleteExecutor = Executors.newFixedThreadPool(deleteConcurrency, threadFactory("minio-delete"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
+        downloadExecutor.shutdown();
+        deleteExecutor.shutdown();
+    }
+
+    /**
+     * @return the executor for object storage uploads
+     */
+    public ExecutorService getUploadExecutor() {
+        return uploadExecutor;
+    }
+
+    /**
+     * @return the executor for prefetching objects from the object storage
+     */
+    public ExecutorService getDownloadExecutor() {
+        return downloadExecutor;
+    }
+
+    /**
+     * @return the executor for deleting objects from the object storage
+     */
+    public ExecutorService getDeleteExecutor() {
+        return deleteExecutor;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,319 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import org.onecx.document.management.domain.daos.ChannelDAO;
+import org.onecx.document.management.domain.daos.DocumentSpecificationDAO;
+import org.onecx.document.management.domain.daos.DocumentTypeDAO;
+import org.onecx.document.management.domain.daos.SupportedMimeTypeDAO;
+import org.onecx.document.management.domain.models.entities.DocumentType;
+import org.onecx.document.management.domain.models.entities.SupportedMimeType;
+import org.onecx.document.management.rs.v1.mappers.DocumentMapper;
+import org.onecx.document.management.rs.v1.mappers.DocumentSpecificationMapper;
+import org.onecx.document.management.rs.v1.mappers.DocumentTypeMapper;
+import org.onecx.document.management.rs.v1.mappers.SupportedMimeTypeMapper;
+
+import gen.org.onecx.document.management.rs.v1.model.ChannelDTO;
+import gen.org.onecx.document.management.rs.v1.model.DocumentSpecificationDTO;
+import gen.org.onecx.document.management.rs.v1.model.DocumentTypeDTO;
+import gen.org.onecx.document.management.rs.v1.model.SupportedMimeTypeDTO;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CacheResult;
+
+/**
+ * Read-through cache of the reference data: document types, supported
+ * mime-types, document specifications and channel names. The lists are cached as DTOs. For
+ * lookups by id only the existence of the id is cached, the entity itself is
+ * returned as a reference of the current persistence context, so no select is
+ * needed.
+ * <p>
+ * Every change of reference data has to call {@link #invalidate(Type, String)}.
+ * The caches of the type are invalidated when the transaction completed, so no
+ * other request caches the old state in the meantime. The other pods are
+ * notified through the {@link CacheInvalidationBus}.
+ */
+@ApplicationScoped
+public class ReferenceDataCache {
+
+    public static final String DOCUMENT_TYPE_IDS = "document-type-ids";
+
+    public static final String DOCUMENT_TYPES = "document-types";
+
+    public static final String SUPPORTED_MIME_TYPE_IDS = "supported-mime-type-ids";
+
+    public static final String SUPPORTED_MIME_TYPES = "supported-mime-types";
+
+    public static final String DOCUMENT_SPECIFICATIONS = "document-specifications";
+
+    public static final String CHANNELS = "channels";
+
+    /**
+     * The kinds of reference data.
+     */
+    public enum Type {
+        DOCUMENT_TYPE,
+        SUPPORTED_MIME_TYPE,
+        DOCUMENT_SPECIFICATION,
+        CHANNEL
+    }
+
+    @Inject
+    DocumentTypeDAO documentTypeDAO;
+
+    @Inject
+    SupportedMimeTypeDAO supportedMimeTypeDAO;
+
+    @Inject
+    DocumentSpecificationDAO documentSpecificationDAO;
+
+    @Inject
+    ChannelDAO channelDAO;
+
+    @Inject
+    DocumentTypeMapper documentTypeMapper;
+
+    @Inject
+    SupportedMimeTypeMapper supportedMimeTypeMapper;
+
+    @Inject
+    DocumentSpecificationMapper documentSpecificationMapper;
+
+    @Inject
+    DocumentMapper documentMapper;
+
+    @Inject
+    Event<Changed> changedEvent;
+
+    @Inject
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    @CacheName(DOCUMENT_TYPE_IDS)
+    Cache documentTypeIds;
+
+    @Inject
+    @CacheName(DOCUMENT_TYPES)
+    Cache documentTypes;
+
+    @Inject
+    @CacheName(SUPPORTED_MIME_TYPE_IDS)
+    Cache supportedMimeTypeIds;
+
+    @Inject
+    @CacheName(SUPPORTED_MIME_TYPES)
+    Cache supportedMimeTypes;
+
+    @Inject
+    @CacheName(DOCUMENT_SPECIFICATIONS)
+    Cache documentSpecifications;
+
+    @Inject
+    @CacheName(CHANNELS)
+    Cache channels;
+
+    /**
+     * @param id the document type id
+     * @return a reference to the document type or {@code null} if it does not
+     *         exist
+     */
+    public DocumentType findDocumentType(String id) {
+        return Objects.nonNull(id) && documentTypeExists(id) ? documentTypeDAO.getReference(id) : null;
+    }
+
+    /**
+     * @param id the supported mime-type id
+     * @return a reference to the supported mime-type or {@code null} if it does
+     *         not exist
+     */
+    public SupportedMimeType findSupportedMimeType(String id) {
+        return Objects.nonNull(id) && supportedMimeTypeExists(id) ? supportedMimeTypeDAO.getReference(id) : null;
+    }
+
+    @CacheResult(cacheName = DOCUMENT_TYPE_IDS)
+    public boolean documentTypeExists(String id) {
+        return documentTypeDAO.existsById(id);
+    }
+
+    @CacheResult(cacheName = SUPPORTED_MIME_TYPE_IDS)
+    public boolean supportedMimeTypeExists(String id) {
+        return supportedMimeTypeDAO.existsById(id);
+    }
+
+    @CacheResult(cacheName = DOCUMENT_TYPES)
+    public List<DocumentTypeDTO> findAllDocumentTypes() {
+        return List.copyOf(documentTypeMapper.findAllDocumentType(documentTypeDAO.findAll().toList()));
+    }
+
+    @CacheResult(cacheName = SUPPORTED_MIME_TYPES)
+    public List<SupportedMimeTypeDTO> findAllSupportedMimeTypes() {
+        return List.copyOf(supportedMimeTypeMapper
+                .findAllSupportedMimeTypes(supportedMimeTypeDAO.findAll().toList()));
+    }
+
+    /**
+     * The list is invalidated by the changes of the specification resource. The
+     * specifications persisted with a document are picked up when the cache
+     * entry expires.
+     *
+     * @return all document specifications
+     */
+    @CacheResult(cacheName = DOCUMENT_SPECIFICATIONS)
+    public List<DocumentSpecificationDTO> findAllDocumentSpecifications() {
+        return List.copyOf(documentSpecificationMapper
+                .findAllDocumentSpecifications(documentSpecificationDAO.findAll().toList()));
+    }
+
+    /**
+     * The list is invalidated when a channel name is added or the last channel
+     * of a name is removed. Other changes, e.g. another channel of a listed name,
+     * are picked up when the cache entry expires.
+     *
+     * @return one channel per name ignoring case, sorted by name
+     */
+    @CacheResult(cacheName = CHANNELS)
+    public ChannelList findAllChannels() {
+        List<ChannelDTO> channelDTOs = List.copyOf(documentMapper
+                .mapChannels(channelDAO.findAllDistinctByNameIgnoreCase()));
+        return new ChannelList(channelDTOs, etag(channelDTOs));
+    }
+
+    /**
+     * @param name the channel name
+     * @return true if the cached channel list contains the name ignoring case
+     */
+    public boolean containsChannelName(String name) {
+        return findAllChannels().channels().stream().anyMatch(channel -> name.equalsIgnoreCase(channel.getName()));
+    }
+
+    /**
+     * Invalidates all caches of the given type.
+     *
+     * @param type the changed reference data
+     * @see #invalidate(Type, String)
+     */
+    public void invalidate(Type type) {
+        invalidate(type, null);
+    }
+
+    /**
+     * Invalidates the caches of the given type once the current transaction
+     * completed, or immediately without a transaction, and publishes the change
+     * to the other pods. A change is published once per transaction.
+     *
+     * @param type the changed reference data
+     * @param id the id of the changed entity or {@code null} for all entities
+     */
+    public void invalidate(Type type, String id) {
+        var changed = new Changed(type, id);
+        if (Objects.nonNull(transactionSynchronizationRegistry.getTransactionKey())) {
+            if (Objects.nonNull(transactionSynchronizationRegistry.getResource(changed))) {
+                return;
+            }
+            transactionSynchronizationRegistry.putResource(changed, Boolean.TRUE);
+        }
+        changedEvent.fire(changed);
+        cacheInvalidationBus.publish(type, id);
+    }
+
+    void onChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) Changed changed) {
+        evict(changed.type(), changed.id());
+    }
+
+    /**
+     * Invalidates the caches of all types immediately.
+     */
+    public void evictAll() {
+        for (Type type : Type.values()) {
+            evict(type, null);
+        }
+    }
+
+    /**
+     * Invalidates the caches of the given type immediately. The lists are always
+     * invalidated, the cached existence only for the id.
+     *
+     * @param type the changed reference data
+     * @param id the id of the changed entity or {@code null} for all entities
+     */
+    public void evict(Type type, String id) {
+        switch (type) {
+            case DOCUMENT_TYPE -> {
+                evict(documentTypeIds, id);
+                documentTypes.invalidateAll().await().indefinitely();
+            }
+            case SUPPORTED_MIME_TYPE -> {
+                evict(supportedMimeTypeIds, id);
+                supportedMimeTypes.invalidateAll().await().indefinitely();
+            }
+            case DOCUMENT_SPECIFICATION -> documentSpecifications.invalidateAll().await().indefinitely();
+            case CHANNEL -> channels.invalidateAll().await().indefinitely();
+        }
+    }
+
+    /**
+     * @return a hash of the ids, names and versions of the channels
+     */
+    private static String etag(List<ChannelDTO> channelDTOs) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (ChannelDTO channel : channelDTOs) {
+                digest.update((channel.getId() + '\n' + channel.getName() + '\n' + channel.getModificationCount()
+                        + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void evict(Cache cache, String id) {
+        if (Objects.isNull(id)) {
+            cache.invalidateAll().await().indefinitely();
+        } else {
+            cache.invalidate(id).await().indefinitely();
+        }
+    }
+
+    /**
+     * The event of a change of reference data.
+     *
+     * @param type the changed reference data
+     * @param id the id of the changed entity or {@code null} for all entities
+     */
+    record Changed(Type type, String id) {
+    }
+
+    /**
+     * The cached channel list.
+     *
+     * @param channels the channels sorted by name
+     * @param etag the entity tag of the list, without quotes
+     */
+    public record ChannelList(List<ChannelDTO> channels, String etag) {
+
+        /**
+         * @param ifNoneMatch the {@code If-None-Match} header
+         * @return true if the client has the current list
+         */
+        public boolean isNotModified(String ifNoneMatch) {
+            return Objects.nonNull(ifNoneMatch) && ObjectDownloadService
+                    .isNotModified(new DownloadConditions(null, null, ifNoneMatch, null), etag, null);
+        }
+    }
+}
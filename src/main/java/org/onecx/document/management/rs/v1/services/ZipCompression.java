@@ -0,0 +1,41 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The compression of the entries of a ZIP export.
+ */
+public enum ZipCompression {
+
+    /**
+     * Deflate text-like files and store everything else, based on the mime type
+     * of the file. Files larger than the read-ahead buffer are deflated without
+     * compression instead of stored.
+     */
+    AUTO,
+
+    /**
+     * Store all files without compression.
+     */
+    STORED,
+
+    /**
+     * Deflate all files.
+     */
+    DEFLATED;
+
+    /**
+     * @param value the case-insensitive name, {@code null} for {@link #AUTO}
+     * @return the compression or {@code null} if the value is unknown
+     */
+    public static ZipCompression fromValue(String value) {
+        if (Objects.isNull(value) || value.isBlank()) {
+            return AUTO;
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        return Arrays.stream(values()).filter(compression -> compression.name().equals(name)).findFirst()
+                .orElse(null);
+    }
+}
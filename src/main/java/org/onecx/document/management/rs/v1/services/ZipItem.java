@@ -0,0 +1,26 @@
+package org.onecx.document.management.rs.v1.services;
+
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A file of the object storage which is written as an entry of a ZIP export.
+ *
+ * @param entryName the name of the ZIP entry
+ * @param objectId the object name in the bucket
+ * @param fileTime the creation and last modification time of the entry
+ * @param mimeType the mime type of the file, may be {@code null}
+ */
+public record ZipItem(String entryName, String objectId, FileTime fileTime, String mimeType) {
+
+    /**
+     * @param dateTime the date time, {@code null} for now
+     * @param zoneId the time zone of the date time
+     * @return the entry time
+     */
+    public static FileTime fileTime(LocalDateTime dateTime, ZoneId zoneId) {
+        LocalDateTime value = dateTime != null ? dateTime : LocalDateTime.now();
+        return FileTime.from(value.atZone(zoneId).toInstant());
+    }
+}
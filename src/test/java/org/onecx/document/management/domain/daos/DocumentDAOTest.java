@@ -6,20 +6,252 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.stat.Statistics;
+import org.jboss.logging.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.mockito.Mockito;
 import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
+import org.onecx.document.management.domain.models.entities.Document;
+import org.onecx.document.management.domain.models.entities.DocumentCharacteristic;
+import org.onecx.document.management.domain.models.entities.Document_;
+import org.onecx.document.management.domain.models.enums.SearchMode;
+import org.onecx.document.management.test.ExplainStatementInspector;
 import org.tkit.quarkus.jpa.exceptions.DAOException;
+import org.tkit.quarkus.test.WithDBData;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 
 @QuarkusTest
 class DocumentDAOTest {
 
+    private static final Logger LOG = Logger.getLogger(DocumentDAOTest.class);
+    private static final String EXISTING_DOCUMENT_ID = "51";
+    private static final int ADDITIONAL_TAGS = 50;
+    private static final int ADDITIONAL_CHARACTERISTICS = 20;
+    private static final int ITERATIONS = 20;
+    /* the document with its to-one associations and one query per collection */
+    private static final long MAX_DETAIL_STATEMENTS = 7;
+    /* the benchmark only runs with e.g. -Dsearch.benchmark.documents=5000000 */
+    private static final String BENCHMARK_DOCUMENTS_PROPERTY = "search.benchmark.documents";
+    private static final int BENCHMARK_DOCUMENTS = Integer.getInteger(BENCHMARK_DOCUMENTS_PROPERTY, 20_000);
+    private static final int BENCHMARK_TRANSACTION_TIMEOUT_SECONDS = 3600;
+
+    @Inject
+    DocumentDAO documentDAO;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    @DisplayName("Loads a document with all collections with less rows than the entity graph of all attributes.")
+    @WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+    void testFindDocumentByIdComparedToEntityGraph() {
+        QuarkusTransaction.begin();
+        try {
+            Document document = entityManager.find(Document.class, EXISTING_DOCUMENT_ID);
+            for (int i = 0; i < ADDITIONAL_TAGS; i++) {
+                document.getTags().add("benchmark_tag_" + i);
+            }
+            for (int i = 0; i < ADDITIONAL_CHARACTERISTICS; i++) {
+                var characteristic = new DocumentCharacteristic();
+                characteristic.setName("benchmark_characteristic_" + i);
+                characteristic.setValue("value_" + i);
+                document.getCharacteristics().add(characteristic);
+            }
+            entityManager.flush();
+
+            Statistics statistics = sessionFactory.getStatistics();
+            statistics.clear();
+            Document loaded = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                entityManager.clear();
+                loaded = documentDAO.findDocumentById(EXISTING_DOCUMENT_ID);
+            }
+            long loaderMicros = (System.nanoTime() - start) / 1000 / ITERATIONS;
+            long loaderStatements = statistics.getPrepareStatementCount() / ITERATIONS;
+
+            /* the former Document.loadAll graph */
+            EntityGraph<Document> graph = entityManager.createEntityGraph(Document.class);
+            graph.addAttributeNodes(Document_.TAGS, Document_.CHANNEL, Document_.TYPE, Document_.SPECIFICATION,
+                    Document_.RELATED_OBJECT, Document_.DOCUMENT_RELATIONSHIPS, Document_.CHARACTERISTICS,
+                    Document_.RELATED_PARTIES, Document_.CATEGORIES, Document_.ATTACHMENTS);
+            Map<String, Object> hints = Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, graph);
+            Document graphLoaded = null;
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                entityManager.clear();
+                graphLoaded = entityManager.find(Document.class, EXISTING_DOCUMENT_ID, hints);
+            }
+            long graphMicros = (System.nanoTime() - start) / 1000 / ITERATIONS;
+            entityManager.clear();
+            List<String> graphStatements = ExplainStatementInspector
+                    .capture(() -> entityManager.find(Document.class, EXISTING_DOCUMENT_ID, hints));
+            assertThat(graphStatements).hasSize(1);
+            long graphRows = countRows(graphStatements.get(0), EXISTING_DOCUMENT_ID);
+
+            assertNotNull(loaded);
+            assertEquals(graphLoaded.getTags(), loaded.getTags());
+            assertEquals(graphLoaded.getDocumentRelationships().size(), loaded.getDocumentRelationships().size());
+            assertEquals(graphLoaded.getCharacteristics().size(), loaded.getCharacteristics().size());
+            assertEquals(graphLoaded.getRelatedParties().size(), loaded.getRelatedParties().size());
+            assertEquals(graphLoaded.getCategories().size(), loaded.getCategories().size());
+            assertEquals(graphLoaded.getAttachments().size(), loaded.getAttachments().size());
+
+            List<Set<?>> collections = List.of(loaded.getTags(), loaded.getDocumentRelationships(),
+                    loaded.getCharacteristics(), loaded.getRelatedParties(), loaded.getCategories(),
+                    loaded.getAttachments());
+            long loaderRows = 1 + collections.stream().mapToLong(Set::size).sum();
+            LOG.infof("findDocumentById: %d rows, %d statements, %d us; entity graph: %d rows, 1 statement, %d us",
+                    loaderRows, loaderStatements, loaderMicros, graphRows, graphMicros);
+
+            assertThat(loaderStatements).isLessThanOrEqualTo(MAX_DETAIL_STATEMENTS);
+            assertThat(loaderRows).isLessThan(graphRows);
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    /**
+     * Runs the statement with the id as its only parameter and counts the rows
+     * of its result.
+     */
+    private long countRows(String sql, String id) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    long rows = 0;
+                    while (resultSet.next()) {
+                        rows++;
+                    }
+                    return rows;
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Searches documents by substring of the name, optionally ordered by relevance.")
+    @WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+    void testSearchByNameSubstring() {
+        QuarkusTransaction.begin();
+        try {
+            for (String name : List.of("old invoice copy", "invoice", "invoices 2026", "documentx5")) {
+                var document = new Document();
+                document.setName(name);
+                documentDAO.create(document);
+            }
+            DocumentSearchCriteria criteria = new DocumentSearchCriteria();
+            criteria.setName("ment_5");
+            assertThat(documentDAO.findSliceBySearchCriteria(criteria)).isEmpty();
+
+            /* the underscore matches only itself, not the x of documentx5 */
+            criteria.setSearchMode(SearchMode.CONTAINS);
+            assertThat(documentDAO.findSliceBySearchCriteria(criteria)).extracting(Document::getId)
+                    .containsExactlyInAnyOrder("55", "56");
+
+            criteria.setName("ment%5");
+            assertThat(documentDAO.findSliceBySearchCriteria(criteria)).isEmpty();
+
+            criteria.setName("INVOICE");
+            criteria.setOrderByRelevance(true);
+            assertThat(documentDAO.findSliceBySearchCriteria(criteria)).extracting(Document::getName)
+                    .hasSize(3)
+                    .first()
+                    .isEqualTo("invoice");
+            assertThat(documentDAO.countBySearchCriteria(criteria)).isEqualTo(3);
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_DOCUMENTS_PROPERTY, matches = "\\d+")
+    @DisplayName("Measures the prefix, substring and relevance search on a generated data set.")
+    void testSearchBenchmark() {
+        QuarkusTransaction.begin(QuarkusTransaction.beginOptions().timeout(BENCHMARK_TRANSACTION_TIMEOUT_SECONDS));
+        try {
+            long start = System.nanoTime();
+            entityManager.createNativeQuery("insert into dm_related_object (guid, optlock, ro_id, ro_type)"
+                    + " select 'benchmark-' || i, 0, 'ro-' || md5(i::text),"
+                    + " (array['customer bill', 'contract', 'invoice'])[i % 3 + 1]"
+                    + " from generate_series(1, :documents) i")
+                    .setParameter("documents", BENCHMARK_DOCUMENTS)
+                    .executeUpdate();
+            entityManager.createNativeQuery("insert into dm_document"
+                    + " (guid, optlock, name, status, related_object_guid, creationdate, modificationdate)"
+                    + " select 'benchmark-' || i, 0, 'document ' || md5(i::text), 'DRAFT', 'benchmark-' || i,"
+                    + " localtimestamp - i * interval '1 second', localtimestamp - i * interval '1 second'"
+                    + " from generate_series(1, :documents) i")
+                    .setParameter("documents", BENCHMARK_DOCUMENTS)
+                    .executeUpdate();
+            entityManager.createNativeQuery("analyze dm_document, dm_related_object").executeUpdate();
+            LOG.infof("Generated %d documents in %d ms", BENCHMARK_DOCUMENTS, (System.nanoTime() - start) / 1_000_000);
+
+            int key = BENCHMARK_DOCUMENTS / 2;
+            String hash = (String) entityManager.createNativeQuery("select md5(cast(:key as text))")
+                    .setParameter("key", key)
+                    .getSingleResult();
+            String expectedId = "benchmark-" + key;
+
+            DocumentSearchCriteria prefix = new DocumentSearchCriteria();
+            prefix.setName("document " + hash.substring(0, 8));
+            assertThat(benchmarkSearch("prefix name", prefix)).contains(expectedId);
+
+            DocumentSearchCriteria contains = new DocumentSearchCriteria();
+            contains.setName(hash.substring(8, 20));
+            contains.setSearchMode(SearchMode.CONTAINS);
+            assertThat(benchmarkSearch("substring name", contains)).contains(expectedId);
+
+            DocumentSearchCriteria objectReference = new DocumentSearchCriteria();
+            objectReference.setObjectReferenceId(hash.substring(4, 16));
+            objectReference.setSearchMode(SearchMode.CONTAINS);
+            assertThat(benchmarkSearch("substring object reference id", objectReference)).contains(expectedId);
+
+            DocumentSearchCriteria relevance = new DocumentSearchCriteria();
+            relevance.setName(hash.substring(0, 12));
+            relevance.setSearchMode(SearchMode.CONTAINS);
+            relevance.setOrderByRelevance(true);
+            assertThat(benchmarkSearch("substring name by relevance", relevance)).first().isEqualTo(expectedId);
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    private List<String> benchmarkSearch(String name, DocumentSearchCriteria criteria) {
+        criteria.setPageSize(10);
+        List<String> ids = List.of();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            ids = documentDAO.findSliceBySearchCriteria(criteria).stream().map(Document::getId).toList();
+        }
+        LOG.infof("Search by %s in %d documents: %d us", name, BENCHMARK_DOCUMENTS,
+                (System.nanoTime() - start) / 1000 / ITERATIONS);
+        return ids;
+    }
+
     @Test
     @DisplayName("Throw DAOException for criteria equal null.")
     void shouldThrowDAOExceptionWhenTryFindDocumentsByCriteriaEqualNull() {
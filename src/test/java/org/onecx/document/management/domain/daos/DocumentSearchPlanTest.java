@@ -0,0 +1,272 @@
+package org.onecx.document.management.domain.daos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.onecx.document.management.domain.criteria.DocumentSearchCriteria;
+import org.onecx.document.management.domain.models.entities.Document;
+import org.onecx.document.management.domain.models.enums.LifeCycleState;
+import org.onecx.document.management.domain.models.enums.SearchMode;
+import org.onecx.document.management.test.ExplainStatementInspector;
+import org.tkit.quarkus.jpa.models.TraceableEntity_;
+import org.tkit.quarkus.test.WithDBData;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Checks the plans of the document search against a seeded database: every
+ * shape of {@link DocumentSearchCriteria} has to be answered by the indexes,
+ * a sequential scan is only accepted on tables with at most
+ * {@link #MAX_SEQ_SCAN_ROWS} rows. Like the search benchmark of
+ * {@link DocumentDAOTest} it only runs with e.g.
+ * {@code -Dsearch.benchmark.documents=50000}.
+ */
+@QuarkusTest
+@EnabledIfSystemProperty(named = DocumentSearchPlanTest.DOCUMENTS_PROPERTY, matches = "\\d+")
+@WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+class DocumentSearchPlanTest {
+
+    private static final Logger LOG = Logger.getLogger(DocumentSearchPlanTest.class);
+    static final String DOCUMENTS_PROPERTY = "search.benchmark.documents";
+    /* run with -Dsearch.benchmark.documents=5000000 to check the plans of a production sized data set */
+    private static final int DOCUMENTS = Integer.getInteger(DOCUMENTS_PROPERTY, 50_000);
+    /* every document has its own channel, the names repeat */
+    private static final int CHANNEL_NAMES = 20;
+    private static final int USERS = 200;
+    private static final long MAX_SEQ_SCAN_ROWS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int TRANSACTION_TIMEOUT_SECONDS = 3600;
+
+    @Inject
+    DocumentDAO documentDAO;
+
+    @Inject
+    EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Searches by every criteria shape without a sequential scan of a large table.")
+    void testSearchPlansUseIndexes() {
+        QuarkusTransaction.begin(QuarkusTransaction.beginOptions().timeout(TRANSACTION_TIMEOUT_SECONDS));
+        try {
+            seed();
+            List<String> violations = new ArrayList<>();
+            for (Map.Entry<String, DocumentSearchCriteria> shape : criteriaShapes().entrySet()) {
+                JsonNode plan = explainSearch(shape.getValue());
+                LOG.infof("Plan of the search by %s: %s", shape.getKey(), plan);
+                collectSeqScans(plan, shape.getKey(), violations);
+            }
+            assertThat(violations).isEmpty();
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    @Test
+    @DisplayName("Starts the index scan of a cursor page at the cursor instead of the newest document.")
+    void testCursorPageIsBoundByIndex() {
+        QuarkusTransaction.begin(QuarkusTransaction.beginOptions().timeout(TRANSACTION_TIMEOUT_SECONDS));
+        try {
+            seed();
+            for (Map.Entry<String, DocumentSearchCriteria> shape : criteriaShapes().entrySet()) {
+                if (Objects.isNull(shape.getValue().getAfterId())) {
+                    continue;
+                }
+                JsonNode plan = explainSearch(shape.getValue());
+                List<JsonNode> documentScans = new ArrayList<>();
+                collectIndexScans(plan, "dm_document", documentScans);
+                assertThat(documentScans).as("index scans of the search by %s: %s", shape.getKey(), plan)
+                        .isNotEmpty()
+                        .allSatisfy(scan -> assertThat(scan.path("Index Cond").asText()
+                                + scan.path("Recheck Cond").asText()).contains("modificationdate"));
+            }
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    private void seed() {
+        entityManager.createNativeQuery("insert into dm_channel (guid, optlock, name)"
+                + " select 'plan-' || i, 0, 'Channel_' || (i % :names) from generate_series(1, :documents) i")
+                .setParameter("names", CHANNEL_NAMES)
+                .setParameter("documents", DOCUMENTS)
+                .executeUpdate();
+        entityManager.createNativeQuery("insert into dm_related_object (guid, optlock, ro_id, ro_type)"
+                + " select 'plan-' || i, 0, 'ro-' || md5(i::text),"
+                + " (array['customer bill', 'contract', 'invoice'])[i % 3 + 1]"
+                + " from generate_series(1, :documents) i")
+                .setParameter("documents", DOCUMENTS)
+                .executeUpdate();
+        entityManager.createNativeQuery("insert into dm_document (guid, optlock, name, status, type_guid,"
+                + " channel_guid, related_object_guid, creationuser, creationdate, modificationdate)"
+                + " select 'plan-' || i, 0, 'document ' || md5(i::text),"
+                + " (array['DRAFT', 'REVIEW', 'RELEASED', 'ARCHIVED'])[i % 4 + 1],"
+                + " (array['201', '202', '203'])[i % 3 + 1], 'plan-' || i, 'plan-' || i,"
+                + " 'user_' || (i % :users), localtimestamp - i * interval '1 minute',"
+                + " localtimestamp - i * interval '1 minute' + (i % 7) * interval '1 hour'"
+                + " from generate_series(1, :documents) i")
+                .setParameter("users", USERS)
+                .setParameter("documents", DOCUMENTS)
+                .executeUpdate();
+        entityManager.createNativeQuery("analyze dm_document, dm_channel, dm_related_object").executeUpdate();
+    }
+
+    /**
+     * @return the criteria combinations offered by the search, by name
+     */
+    private Map<String, DocumentSearchCriteria> criteriaShapes() {
+        Map<String, DocumentSearchCriteria> shapes = new LinkedHashMap<>();
+        shapes.put("no criteria", new DocumentSearchCriteria());
+
+        DocumentSearchCriteria state = new DocumentSearchCriteria();
+        state.setLifeCycleState(List.of(LifeCycleState.REVIEW));
+        shapes.put("state", state);
+
+        DocumentSearchCriteria type = new DocumentSearchCriteria();
+        type.setDocumentTypeId(List.of("202"));
+        shapes.put("type", type);
+
+        DocumentSearchCriteria stateAndType = new DocumentSearchCriteria();
+        stateAndType.setLifeCycleState(List.of(LifeCycleState.DRAFT, LifeCycleState.RELEASED));
+        stateAndType.setDocumentTypeId(List.of("201"));
+        shapes.put("state and type", stateAndType);
+
+        DocumentSearchCriteria createdBy = new DocumentSearchCriteria();
+        createdBy.setCreateBy("user_7");
+        shapes.put("created by", createdBy);
+
+        DocumentSearchCriteria channel = new DocumentSearchCriteria();
+        channel.setChannelName("channel_7");
+        shapes.put("channel name", channel);
+
+        DocumentSearchCriteria creationDate = new DocumentSearchCriteria();
+        creationDate.setStartDate(LocalDateTime.now().minusDays(10));
+        creationDate.setEndDate(LocalDateTime.now().minusDays(9));
+        shapes.put("creation date", creationDate);
+
+        DocumentSearchCriteria createdByAndDate = new DocumentSearchCriteria();
+        createdByAndDate.setCreateBy("user_7");
+        createdByAndDate.setStartDate(LocalDateTime.now().minusDays(10));
+        shapes.put("created by and creation date", createdByAndDate);
+
+        DocumentSearchCriteria channelAndState = new DocumentSearchCriteria();
+        channelAndState.setChannelName("channel_7");
+        channelAndState.setLifeCycleState(List.of(LifeCycleState.ARCHIVED));
+        shapes.put("channel name and state", channelAndState);
+
+        DocumentSearchCriteria name = new DocumentSearchCriteria();
+        name.setName("document c4ca");
+        shapes.put("name prefix", name);
+
+        DocumentSearchCriteria nameContains = new DocumentSearchCriteria();
+        nameContains.setName("c4ca4238a0");
+        nameContains.setSearchMode(SearchMode.CONTAINS);
+        shapes.put("name substring", nameContains);
+
+        DocumentSearchCriteria objectReference = new DocumentSearchCriteria();
+        objectReference.setObjectReferenceId("c4ca4238a0");
+        objectReference.setSearchMode(SearchMode.CONTAINS);
+        shapes.put("object reference id substring", objectReference);
+
+        DocumentSearchCriteria relevance = new DocumentSearchCriteria();
+        relevance.setName("c4ca4238a0");
+        relevance.setSearchMode(SearchMode.CONTAINS);
+        relevance.setOrderByRelevance(true);
+        shapes.put("name substring by relevance", relevance);
+
+        DocumentSearchCriteria cursor = new DocumentSearchCriteria();
+        cursor.setAfterModificationDate(LocalDateTime.now().minusDays(20));
+        cursor.setAfterId("plan-28800");
+        shapes.put("cursor", cursor);
+
+        DocumentSearchCriteria stateAndCursor = new DocumentSearchCriteria();
+        stateAndCursor.setLifeCycleState(List.of(LifeCycleState.REVIEW));
+        stateAndCursor.setAfterModificationDate(LocalDateTime.now().minusDays(20));
+        stateAndCursor.setAfterId("plan-28800");
+        shapes.put("state and cursor", stateAndCursor);
+
+        DocumentSearchCriteria pageNumber = new DocumentSearchCriteria();
+        pageNumber.setPageNumber(3);
+        shapes.put("page number", pageNumber);
+        return shapes;
+    }
+
+    /**
+     * Explains the page query of
+     * {@link DocumentDAO#findSliceBySearchCriteria(DocumentSearchCriteria)},
+     * built by the same methods of the DAO. Only the id is selected instead of
+     * the document with its fetched to-one associations, which are joined by
+     * their primary keys and do not change the access path of the documents.
+     */
+    private JsonNode explainSearch(DocumentSearchCriteria criteria) {
+        criteria.setPageSize(PAGE_SIZE);
+        var cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> cq = cb.createQuery(String.class);
+        Root<Document> root = cq.from(Document.class);
+        documentDAO.createSliceQuery(cb, cq.select(root.get(TraceableEntity_.ID)), root, criteria);
+        List<String> result = ExplainStatementInspector.explain(() -> documentDAO
+                .limitSlice(entityManager.createQuery(cq), criteria)
+                .getResultList());
+        try {
+            return objectMapper.readTree(result.get(0)).get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid plan " + result, e);
+        }
+    }
+
+    private void collectSeqScans(JsonNode plan, String shape, List<String> violations) {
+        if ("Seq Scan".equals(plan.path("Node Type").asText())) {
+            String relation = plan.path("Relation Name").asText();
+            long rows = tableRows(relation);
+            if (rows > MAX_SEQ_SCAN_ROWS) {
+                violations.add("Search by " + shape + " scans " + relation + " with " + rows + " rows");
+            }
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, shape, violations);
+        }
+    }
+
+    /**
+     * Collects the index, index only and bitmap heap scans of the relation,
+     * whose {@code Index Cond} or {@code Recheck Cond} bounds the scan.
+     */
+    private void collectIndexScans(JsonNode plan, String relation, List<JsonNode> scans) {
+        if (relation.equals(plan.path("Relation Name").asText())
+                && List.of("Index Scan", "Index Only Scan", "Bitmap Heap Scan")
+                        .contains(plan.path("Node Type").asText())) {
+            scans.add(plan);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectIndexScans(child, relation, scans);
+        }
+    }
+
+    private long tableRows(String relation) {
+        Number rows = (Number) entityManager.createNativeQuery("select reltuples from pg_class where relname = :name")
+                .setParameter("name", relation)
+                .getSingleResult();
+        return rows.longValue();
+    }
+}
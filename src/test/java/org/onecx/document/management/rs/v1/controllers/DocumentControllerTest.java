@@ -4,34 +4,51 @@ import static io.restassured.RestAssured.given;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.CREATED;
 import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
+import static jakarta.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static jakarta.ws.rs.core.Response.Status.NO_CONTENT;
 import static jakarta.ws.rs.core.Response.Status.OK;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.onecx.document.management.test.AbstractTest.USER;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 
 import org.apache.http.entity.ContentType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.onecx.document.management.domain.daos.DocumentDAO;
 import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
 import org.onecx.document.management.rs.v1.models.PageResultDTO;
 import org.onecx.document.management.rs.v1.models.RFCProblemDTO;
+import org.onecx.document.management.rs.v1.services.DocumentCursor;
+import org.onecx.document.management.rs.v1.services.ObjectDeletionOutboxService;
 import org.onecx.document.management.test.AbstractTest;
+import org.onecx.document.management.test.Await;
 import org.tkit.quarkus.security.test.GenerateKeycloakClient;
 import org.tkit.quarkus.test.WithDBData;
 
 import gen.org.onecx.document.management.rs.v1.model.*;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.common.mapper.TypeRef;
 import io.restassured.response.Response;
@@ -43,6 +60,8 @@ import io.restassured.response.Response;
 class DocumentControllerTest extends AbstractTest {
 
     private static final String BASE_PATH = "/v1/document";
+    /* page query, count query and one batch query per document collection */
+    private static final long MAX_SEARCH_STATEMENTS = 12;
     private static final String EXISTING_DOCUMENT_ID = "51";
     private static final String EXISTING_DOCUMENT_ID_WITHOUT_ATTACHMENTS = "53";
     private static final String NONEXISTENT_DOCUMENT_ID = "1000";
@@ -100,6 +119,15 @@ class DocumentControllerTest extends AbstractTest {
     @Inject
     MinioAuditLogDAO minioAuditLogDAO;
 
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    MinioClient minioClient;
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
     @Test
     @DisplayName("Returns all documents with no criteria given.")
     void testSuccessfulGetWithoutCriteria() {
@@ -131,6 +159,83 @@ class DocumentControllerTest extends AbstractTest {
         assertThat(documents.getStream()).hasSize(1);
     }
 
+    @Test
+    @DisplayName("Returns all documents page by page with a cursor and without count.")
+    void testSuccessfulGetWithoutCriteriaWithCursor() {
+        PageResultDTO<DocumentDetailDTO> allDocuments = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH)
+                .as(getDocumentDetailDTOTypeRef());
+        assertThat(allDocuments.getNextCursor()).isNull();
+        assertThat(allDocuments.getSize()).isEqualTo(DocumentDAO.DEFAULT_PAGE_SIZE);
+
+        List<String> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = given()
+                    .auth()
+                    .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .queryParam("size", 3)
+                    .queryParam("withCount", false);
+            if (cursor != null) {
+                request.queryParam("cursor", cursor);
+            }
+            Response response = request.when().get(BASE_PATH);
+            response.then().statusCode(200);
+            PageResultDTO<DocumentDetailDTO> documents = response.as(getDocumentDetailDTOTypeRef());
+            assertThat(documents.getTotalElements()).isEqualTo(-1);
+            assertThat(documents.getNumber()).isEqualTo(cursor == null ? 0 : -1);
+            assertThat(documents.getStream()).hasSizeLessThanOrEqualTo(3);
+            documents.getStream().forEach(document -> pagedIds.add(document.getId()));
+            cursor = documents.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(pagedIds).containsExactlyElementsOf(
+                allDocuments.getStream().stream().map(DocumentDetailDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Returns a page of documents with a fixed number of SQL statements.")
+    void testSuccessfulGetWithoutCriteriaWithFixedStatementCount() {
+        assertThat(countSearchStatements(2)).isLessThanOrEqualTo(MAX_SEARCH_STATEMENTS);
+        assertThat(countSearchStatements(8)).isLessThanOrEqualTo(MAX_SEARCH_STATEMENTS);
+    }
+
+    /**
+     * @return the number of SQL statements needed to return one page of documents
+     *         of the given size
+     */
+    private long countSearchStatements(int size) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .queryParam("size", size)
+                .when()
+                .get(BASE_PATH)
+                .then().statusCode(200);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("Returns bad request for an invalid cursor.")
+    void testFailedGetWithInvalidCursor() {
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .queryParam("cursor", "not-a-cursor")
+                .when()
+                .get(BASE_PATH)
+                .then().statusCode(400);
+    }
+
     @Test
     @DisplayName("Returns all documents with no criteria given with set page size and given page number.")
     void testSuccessfulGetWithoutCriteriaWithPageSizeAndPageNumber() {
@@ -250,6 +355,31 @@ class DocumentControllerTest extends AbstractTest {
         assertThat(documentList.stream()).allMatch(el -> el.getId().equals(EXISTING_DOCUMENT_ID));
     }
 
+    @Test
+    @DisplayName("Search criteria. Streams all documents as JSON array and as newline delimited JSON.")
+    void testSuccessfulSearchCriteriaFindAllDocumentsStreamed() {
+        Response response = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH + "/show-all-documents");
+        response.then().statusCode(200).contentType(MediaType.APPLICATION_JSON);
+        List<DocumentDetailDTO> documentList = Arrays.asList(response.getBody().as(DocumentDetailDTO[].class));
+        assertThat(documentList).hasSize(8);
+
+        Response ndjsonResponse = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept("application/x-ndjson")
+                .when()
+                .get(BASE_PATH + "/show-all-documents");
+        ndjsonResponse.then().statusCode(200).contentType("application/x-ndjson");
+        List<String> lines = ndjsonResponse.asString().lines().toList();
+        assertThat(lines).hasSize(8).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(lines.get(0)).contains(documentList.get(0).getId());
+    }
+
     @Test
     @DisplayName("Search criteria. Returns empty list when trying to find documents for nonexistent param.")
     void testSuccessfulSearchCriteriaFindDocumentsByNonExistentParam() {
@@ -299,6 +429,41 @@ class DocumentControllerTest extends AbstractTest {
         assertThat(documents.getStream().stream()).allMatch(el -> el.getName().equals(NAME_OF_DOCUMENT_1));
     }
 
+    @Test
+    @DisplayName("Search criteria. Finds documents by a substring of the name ordered by relevance.")
+    void testSuccessfulSearchCriteriaFindDocumentsByNameSubstring() {
+        Response response = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .queryParam("name", "ment_1")
+                .queryParam("searchMode", "CONTAINS")
+                .queryParam("orderByRelevance", true)
+                .when()
+                .get(BASE_PATH);
+
+        response.then().statusCode(200);
+        PageResultDTO<DocumentDetailDTO> documents = response.as(getDocumentDetailDTOTypeRef());
+        assertThat(documents.getStream()).extracting(DocumentDetailDTO::getName).containsExactly(NAME_OF_DOCUMENT_1);
+        assertThat(documents.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Search criteria. Fails to combine a cursor with the order by relevance.")
+    void testFailedSearchCriteriaWithCursorOrderedByRelevance() {
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .queryParam("name", NAME_OF_DOCUMENT_1)
+                .queryParam("orderByRelevance", true)
+                .queryParam("cursor", new DocumentCursor(null, EXISTING_DOCUMENT_ID).encode())
+                .when()
+                .get(BASE_PATH)
+                .then()
+                .statusCode(BAD_REQUEST.getStatusCode());
+    }
+
     @Test
     @DisplayName("Search criteria. Finds all documents by name.")
     void testSuccessfulSearchCriteriaFindAllDocumentsByName() {
@@ -1668,6 +1833,78 @@ class DocumentControllerTest extends AbstractTest {
         assertThat(channels).hasSize(2);
     }
 
+    @Test
+    @DisplayName("Gets all channels with an ETag, not modified until a document changes the channels.")
+    void testGetAllChannelsWithETag() {
+        Response getResponse = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH + "/channels");
+        getResponse.then().statusCode(OK.getStatusCode());
+        String etag = getResponse.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .when()
+                .get(BASE_PATH + "/channels")
+                .then()
+                .statusCode(NOT_MODIFIED.getStatusCode())
+                .header(HttpHeaders.ETAG, etag);
+
+        /* A document of a listed channel name keeps the cached list */
+        ChannelCreateUpdateDTO channelDTO = new ChannelCreateUpdateDTO();
+        channelDTO.setName("CHANNEL_2");
+        DocumentCreateUpdateDTO documentCreateDTO = new DocumentCreateUpdateDTO();
+        documentCreateDTO.setName("TEST_DOCUMENT_NAME");
+        documentCreateDTO.setTypeId("202");
+        documentCreateDTO.setChannel(channelDTO);
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(documentCreateDTO)
+                .when()
+                .post(BASE_PATH)
+                .then()
+                .statusCode(CREATED.getStatusCode());
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .when()
+                .get(BASE_PATH + "/channels")
+                .then()
+                .statusCode(NOT_MODIFIED.getStatusCode());
+
+        /* The only document of channel_1 */
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .delete(BASE_PATH + DIRECTORY_SEPERATOR + EXISTING_DOCUMENT_ID)
+                .then()
+                .statusCode(NO_CONTENT.getStatusCode());
+
+        Response changedResponse = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .when()
+                .get(BASE_PATH + "/channels");
+        changedResponse.then().statusCode(OK.getStatusCode());
+        assertThat(changedResponse.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(changedResponse.as(getChannelDTOTypeRef())).extracting(ChannelDTO::getName)
+                .containsExactly("channel_2");
+    }
+
     @Test
     @DisplayName("Tests the successful upload of multiple file attachments at once to an existing document for the quick upload feature.")
     void testSuccessfulMultipleFileUploads() {
@@ -1839,6 +2076,51 @@ class DocumentControllerTest extends AbstractTest {
 
     }
 
+    @Test
+    @DisplayName("Bulk Delete removes the documents and the files of their attachments after the commit")
+    void testBulkDeleteRemovesAttachmentFiles() {
+        uploadSampleFiles();
+
+        Response deleteResponse = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(EXISTING_DOCUMENT_ID_5, EXISTING_DOCUMENT_ID_4, EXISTING_DOCUMENT_ID_5))
+                .when()
+                .delete(BASE_PATH + "/delete-bulk-documents");
+        deleteResponse.then().statusCode(NO_CONTENT.getStatusCode());
+
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .get(BASE_PATH + DIRECTORY_SEPERATOR + EXISTING_DOCUMENT_ID_5)
+                .then().statusCode(NOT_FOUND.getStatusCode());
+        assertThat(awaitObjectsDeleted(MINIO_FILE_PATH_1, MINIO_FILE_PATH_2)).isZero();
+        assertThat(awaitOutboxDrained()).isZero();
+    }
+
+    @Test
+    @DisplayName("Bulk Delete with a non-existing document id deletes nothing")
+    void testFailedBulkDeleteKeepsExistingDocuments() {
+        Response deleteResponse = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(EXISTING_DOCUMENT_ID_4, NONEXISTENT_DOCUMENT_ID))
+                .when()
+                .delete(BASE_PATH + "/delete-bulk-documents");
+        deleteResponse.then().statusCode(NOT_FOUND.getStatusCode());
+
+        given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .get(BASE_PATH + DIRECTORY_SEPERATOR + EXISTING_DOCUMENT_ID_4)
+                .then().statusCode(OK.getStatusCode());
+        assertThat(objectDeletionOutboxService.countEntries()).isZero();
+    }
+
     @Test
     @DisplayName("Bulk Delete of non-existing document ids")
     void testFailedBulkDelete() {
@@ -1889,6 +2171,59 @@ class DocumentControllerTest extends AbstractTest {
                 .when()
                 .put(BASE_PATH + "/bulkupdate");
         postResponse.then().statusCode(201);
+        List<DocumentBulkUpdateResultDTO> results = postResponse.as(new TypeRef<>() {
+        });
+        assertThat(results).extracting(DocumentBulkUpdateResultDTO::getStatus)
+                .containsExactly(DocumentUpdateStatusDTO.UPDATED, DocumentUpdateStatusDTO.UPDATED);
+        assertThat(results).extracting(result -> result.getDocument().getName())
+                .containsExactly(UPDATED_DOCUMENT_NAME, UPDATED_DOCUMENT_NAME);
+    }
+
+    @Test
+    @DisplayName("Bulk Update reports the result of every item and applies only the valid ones")
+    void testPartialBulkUpdate() {
+        ChannelCreateUpdateDTO channel = new ChannelCreateUpdateDTO();
+        channel.setName("TEST_CHANNEL_NAME");
+        DocumentCreateUpdateDTO existing = new DocumentCreateUpdateDTO();
+        existing.setId(EXISTING_DOCUMENT_ID);
+        existing.setName(UPDATED_DOCUMENT_NAME);
+        existing.setTypeId(UPDATED_DOCUMENT_TYPE);
+        existing.setChannel(channel);
+        DocumentCreateUpdateDTO nonexistent = new DocumentCreateUpdateDTO();
+        nonexistent.setId(NONEXISTENT_DOCUMENT_ID);
+        nonexistent.setName(UPDATED_DOCUMENT_NAME);
+        nonexistent.setTypeId(UPDATED_DOCUMENT_TYPE);
+        nonexistent.setChannel(channel);
+        DocumentCreateUpdateDTO withoutChannel = new DocumentCreateUpdateDTO();
+        withoutChannel.setId(EXISTING_DOCUMENT_ID_2);
+        withoutChannel.setName(UPDATED_DOCUMENT_NAME);
+        withoutChannel.setTypeId(UPDATED_DOCUMENT_TYPE);
+        Response response = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(existing, nonexistent, withoutChannel))
+                .when()
+                .put(BASE_PATH + "/bulkupdate");
+        response.then().statusCode(207);
+        List<DocumentBulkUpdateResultDTO> results = response.as(new TypeRef<>() {
+        });
+        assertThat(results).extracting(DocumentBulkUpdateResultDTO::getId)
+                .containsExactly(EXISTING_DOCUMENT_ID, NONEXISTENT_DOCUMENT_ID, EXISTING_DOCUMENT_ID_2);
+        assertThat(results).extracting(DocumentBulkUpdateResultDTO::getStatus)
+                .containsExactly(DocumentUpdateStatusDTO.UPDATED, DocumentUpdateStatusDTO.NOT_FOUND,
+                        DocumentUpdateStatusDTO.INVALID);
+        assertThat(results.get(1).getMessage()).isNotBlank();
+
+        DocumentDetailDTO unchanged = given()
+                .auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH + "/" + EXISTING_DOCUMENT_ID_2)
+                .as(DocumentDetailDTO.class);
+        assertThat(unchanged.getName()).isEqualTo("document_2");
     }
 
     @Test
@@ -1953,6 +2288,7 @@ class DocumentControllerTest extends AbstractTest {
                 .when()
                 .delete(BASE_PATH + "/file/delete-bulk-attachment");
         deleteResponse.then().statusCode(NO_CONTENT.getStatusCode());
+        assertThat(awaitObjectsDeleted(MINIO_FILE_PATH_1, MINIO_FILE_PATH_2)).isZero();
 
         /*
          * Response deleteMinioResponse1 = given()
@@ -2096,6 +2432,207 @@ class DocumentControllerTest extends AbstractTest {
         getResponse.then().contentType(ZIP_CONTENT_TYPE);
     }
 
+    @Test
+    @DisplayName("Get All existing Document's Attachments from Minio As Zip in file name order")
+    void testSuccessfulGetAllDocumentAttachmentsFromMinioAsZipEntries() throws IOException {
+        File sampleFile1 = new File(SAMPLE_FILE_PATH_1);
+        File sampleFile2 = new File(SAMPLE_FILE_PATH_2);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile2)
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_2)
+                .then().statusCode(201);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile1)
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_1)
+                .then().statusCode(201);
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_OCTET_STREAM)
+                .when()
+                .get(BASE_PATH + "/file/" + EXISTING_DOCUMENT_ID_5 + "/attachments");
+        getResponse.then().statusCode(200);
+
+        List<String> entryNames = new ArrayList<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(getResponse.asByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+                File sampleFile = MINIO_FILE_PATH_1.equals(entry.getName()) ? sampleFile1 : sampleFile2;
+                assertThat(zip.readAllBytes()).isEqualTo(Files.readAllBytes(sampleFile.toPath()));
+            }
+        }
+        assertThat(entryNames).containsExactly(MINIO_FILE_PATH_1, MINIO_FILE_PATH_2);
+    }
+
+    @Test
+    @DisplayName("Get All existing Document's Attachments from Minio As Zip with compression mode")
+    void testSuccessfulGetAllDocumentAttachmentsFromMinioAsZipWithCompression() throws IOException {
+        File sampleFile1 = new File(SAMPLE_FILE_PATH_1);
+        File sampleFile2 = new File(SAMPLE_FILE_PATH_2);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile1)
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_1)
+                .then().statusCode(201);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile2)
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_2)
+                .then().statusCode(201);
+
+        /* The attachments are PDFs which are stored by default */
+        assertThat(getZipEntryMethods(null)).containsOnly(ZipEntry.STORED);
+        assertThat(getZipEntryMethods("deflated")).containsOnly(ZipEntry.DEFLATED);
+        assertThat(getZipEntryMethods("stored")).containsOnly(ZipEntry.STORED);
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_OCTET_STREAM)
+                .queryParam("compression", "unknown")
+                .when()
+                .get(BASE_PATH + "/file/" + EXISTING_DOCUMENT_ID_5 + "/attachments")
+                .then().statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Export Attachments of Documents by Ids As Zip")
+    void testSuccessfulExportDocumentAttachmentsByIdsAsZip() throws IOException {
+        uploadSampleFiles();
+        DocumentAttachmentsExportDTO exportDTO = new DocumentAttachmentsExportDTO();
+        exportDTO.setDocumentIds(List.of(EXISTING_DOCUMENT_ID_5, NONEXISTENT_DOCUMENT_ID));
+
+        assertThat(exportDocumentAttachments(exportDTO)).containsExactly(
+                "document_5_" + EXISTING_DOCUMENT_ID_5 + "/" + MINIO_FILE_PATH_1,
+                "document_5_" + EXISTING_DOCUMENT_ID_5 + "/" + MINIO_FILE_PATH_2);
+    }
+
+    @Test
+    @DisplayName("Export Attachments of Documents by Criteria As Zip")
+    void testSuccessfulExportDocumentAttachmentsByCriteriaAsZip() throws IOException {
+        uploadSampleFiles();
+        DocumentSearchCriteriaDTO criteriaDTO = new DocumentSearchCriteriaDTO();
+        criteriaDTO.setId(EXISTING_DOCUMENT_ID_5);
+        DocumentAttachmentsExportDTO exportDTO = new DocumentAttachmentsExportDTO();
+        exportDTO.setCriteria(criteriaDTO);
+
+        assertThat(exportDocumentAttachments(exportDTO)).containsExactly(
+                "document_5_" + EXISTING_DOCUMENT_ID_5 + "/" + MINIO_FILE_PATH_1,
+                "document_5_" + EXISTING_DOCUMENT_ID_5 + "/" + MINIO_FILE_PATH_2);
+    }
+
+    @Test
+    @DisplayName("Export Attachments of Documents As Zip without uploaded files or selection")
+    void testExportDocumentAttachmentsAsZipWithoutContent() {
+        DocumentAttachmentsExportDTO exportDTO = new DocumentAttachmentsExportDTO();
+        exportDTO.setDocumentIds(List.of(NONEXISTENT_DOCUMENT_ID, EXISTING_DOCUMENT_ID_WITHOUT_ATTACHMENTS));
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportDTO)
+                .when()
+                .post(BASE_PATH + "/files/attachments")
+                .then().statusCode(204);
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new DocumentAttachmentsExportDTO())
+                .when()
+                .post(BASE_PATH + "/files/attachments")
+                .then().statusCode(400);
+    }
+
+    /**
+     * Files are deleted asynchronously after the commit, so this waits until
+     * they are gone or a timeout elapsed.
+     *
+     * @return the number of objects which still exist
+     */
+    private long awaitObjectsDeleted(String... objectNames) {
+        Await.until(() -> countObjects(objectNames) == 0, Duration.ofSeconds(10));
+        return countObjects(objectNames);
+    }
+
+    private long awaitOutboxDrained() {
+        Await.until(() -> objectDeletionOutboxService.countEntries() == 0, Duration.ofSeconds(10));
+        return objectDeletionOutboxService.countEntries();
+    }
+
+    private long countObjects(String... objectNames) {
+        return Arrays.stream(objectNames).filter(objectName -> {
+            try {
+                minioClient.statObject(StatObjectArgs.builder().bucket(BUCKET_NAME).object(objectName).build());
+                return true;
+            } catch (ErrorResponseException e) {
+                return false;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).count();
+    }
+
+    private void uploadSampleFiles() {
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, new File(SAMPLE_FILE_PATH_1))
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_1)
+                .then().statusCode(201);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, new File(SAMPLE_FILE_PATH_2))
+                .when()
+                .put(FILE_BASE_PATH + BUCKET_NAME + DIRECTORY_SEPERATOR + MINIO_FILE_PATH_2)
+                .then().statusCode(201);
+    }
+
+    private List<String> exportDocumentAttachments(DocumentAttachmentsExportDTO exportDTO) throws IOException {
+        Response postResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_OCTET_STREAM)
+                .body(exportDTO)
+                .when()
+                .post(BASE_PATH + "/files/attachments");
+        postResponse.then().statusCode(200);
+        postResponse.then().contentType(ZIP_CONTENT_TYPE);
+        List<String> entryNames = new ArrayList<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(postResponse.asByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+            }
+        }
+        return entryNames;
+    }
+
+    private List<Integer> getZipEntryMethods(String compression) throws IOException {
+        var request = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_OCTET_STREAM);
+        if (compression != null) {
+            request.queryParam("compression", compression);
+        }
+        Response getResponse = request.when().get(BASE_PATH + "/file/" + EXISTING_DOCUMENT_ID_5 + "/attachments");
+        getResponse.then().statusCode(200);
+        List<Integer> methods = new ArrayList<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(getResponse.asByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                zip.readAllBytes();
+                methods.add(entry.getMethod());
+            }
+        }
+        assertThat(methods).hasSize(2);
+        return methods;
+    }
+
     @Test
     @DisplayName("Get Failed Attachment by Id")
     void testGetFailedAttachmentsById() {
@@ -211,6 +211,43 @@ class DocumentTypeControllerTest extends AbstractTest {
         assertThat(typesOfDocuments.get(2).getName()).isIn(EXISTING_DOCUMENT_TYPE_NAMES);
     }
 
+    @Test
+    @DisplayName("Gets all types of document after the cached list was changed.")
+    void testGetAllTypesOfDocumentAfterUpdate() {
+        final String updatedName = "UPDATED_DOCUMENT_TYPE_NAME";
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH)
+                .then()
+                .statusCode(OK.getStatusCode());
+        DocumentTypeCreateUpdateDTO documentTypeUpdateDTO = new DocumentTypeCreateUpdateDTO();
+        documentTypeUpdateDTO.setName(updatedName);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(documentTypeUpdateDTO)
+                .when()
+                .put(BASE_PATH + "/" + EXISTING_DOCUMENT_TYPE_ID)
+                .then()
+                .statusCode(OK.getStatusCode());
+
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .accept(MediaType.APPLICATION_JSON)
+                .when()
+                .get(BASE_PATH);
+        getResponse.then().statusCode(OK.getStatusCode());
+
+        List<DocumentTypeDTO> typesOfDocuments = getResponse.as(getDocumentTypeDTOTypeRef());
+        assertThat(typesOfDocuments).hasSize(3);
+        assertThat(typesOfDocuments).filteredOn(type -> EXISTING_DOCUMENT_TYPE_ID.equals(type.getId()))
+                .singleElement()
+                .extracting(DocumentTypeDTO::getName)
+                .isEqualTo(updatedName);
+    }
+
     @Test
     @DisplayName("Returns document type by id.")
     void testSuccessfulGetDocumentTypeById() {
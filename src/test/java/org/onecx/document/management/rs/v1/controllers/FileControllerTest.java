@@ -1,11 +1,19 @@
 package org.onecx.document.management.rs.v1.controllers;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.onecx.document.management.test.AbstractTest.USER;
 
 import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
+import jakarta.inject.Inject;
 import jakarta.ws.rs.core.MediaType;
 
 import org.junit.jupiter.api.DisplayName;
@@ -13,8 +21,22 @@ import org.junit.jupiter.api.Test;
 import org.onecx.document.management.test.AbstractTest;
 import org.tkit.quarkus.security.test.GenerateKeycloakClient;
 
+import gen.org.onecx.document.management.rs.v1.model.FileDeleteResultDTO;
+import gen.org.onecx.document.management.rs.v1.model.FileDeleteStatusDTO;
 import gen.org.onecx.document.management.rs.v1.model.FileInfoDTO;
+import io.minio.BucketExistsArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveBucketArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.SetBucketVersioningArgs;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+import io.minio.messages.VersioningConfiguration;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.common.mapper.TypeRef;
 import io.restassured.response.Response;
 
 @QuarkusTest
@@ -30,11 +52,18 @@ class FileControllerTest extends AbstractTest {
     private static final String MINIO_UNKNOWN_FILE_PATH = "unknown_content_type_file";
     private static final String BUCKET_NAME = "test-bucket";
     private static final String NOT_ALLOWED_BUCKET_NAME = "test_bucket";
+    private static final String DELETED_BUCKET_NAME = "deleted-bucket";
+    private static final String NONEXISTENT_BUCKET_NAME = "nonexistent-bucket";
+    private static final String VERSIONED_BUCKET_NAME = "versioned-bucket";
+    private static final String IF_MATCH_FILE_PATH = "if-match.jpg";
     private static final String FORM_PARAM_FILE = "file";
     private static final String BASE_PATH = "/v1/files/";
     private static final String NONEXISTENT_FILE_PATH = "l.png";
     private static final String APPLICATION_OCTET_STREAM_CONTENT_TYPE = "application/octet-stream";
 
+    @Inject
+    MinioClient minioClient;
+
     @Test
     @DisplayName("Create bucket for given name.")
     void testSuccessfulCreateBucket() {
@@ -107,6 +136,103 @@ class FileControllerTest extends AbstractTest {
         }
     }
 
+    @Test
+    @DisplayName("Streams an uploaded file with its length and ETag")
+    void testSuccessfulDownloadStreamsFileWithHeaders() throws IOException {
+        File sampleFile = new File(SAMPLE_FILE_PATH);
+        byte[] fileBytes;
+        try (InputStream is = new BufferedInputStream(new FileInputStream(sampleFile))) {
+            fileBytes = is.readAllBytes();
+        }
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile)
+                .when()
+                .put(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(201);
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn();
+        getResponse.then().statusCode(200);
+        assertArrayEquals(fileBytes, getResponse.asByteArray());
+        assertEquals(String.valueOf(fileBytes.length), getResponse.getHeader("Content-Length"));
+        assertNotNull(getResponse.getHeader("ETag"));
+        assertNotNull(getResponse.getHeader("Last-Modified"));
+    }
+
+    @Test
+    @DisplayName("Returns only the requested bytes for a range request")
+    void testSuccessfulRangeDownload() throws IOException {
+        byte[] fileBytes = uploadSampleFile();
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("Range", "bytes=10-19")
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn();
+        getResponse.then().statusCode(206);
+        assertArrayEquals(Arrays.copyOfRange(fileBytes, 10, 20), getResponse.asByteArray());
+        assertEquals("bytes 10-19/" + fileBytes.length, getResponse.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Returns the tail of the file for a suffix range request")
+    void testSuccessfulSuffixRangeDownload() throws IOException {
+        byte[] fileBytes = uploadSampleFile();
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("Range", "bytes=-5")
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn();
+        getResponse.then().statusCode(206);
+        assertArrayEquals(Arrays.copyOfRange(fileBytes, fileBytes.length - 5, fileBytes.length),
+                getResponse.asByteArray());
+    }
+
+    @Test
+    @DisplayName("Returns range not satisfiable for a range beyond the end of the file")
+    void testFailedRangeDownloadBeyondFileSize() throws IOException {
+        byte[] fileBytes = uploadSampleFile();
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("Range", "bytes=" + fileBytes.length + "-")
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn();
+        getResponse.then().statusCode(416);
+        assertEquals("bytes */" + fileBytes.length, getResponse.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Returns the whole file when If-Range does not match the ETag")
+    void testSuccessfulRangeDownloadWithStaleIfRange() throws IOException {
+        byte[] fileBytes = uploadSampleFile();
+        Response getResponse = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("Range", "bytes=10-19")
+                .header("If-Range", "\"stale-etag\"")
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn();
+        getResponse.then().statusCode(200);
+        assertArrayEquals(fileBytes, getResponse.asByteArray());
+    }
+
+    @Test
+    @DisplayName("Returns not modified when the ETag matches If-None-Match")
+    void testNotModifiedDownloadWithMatchingETag() throws IOException {
+        uploadSampleFile();
+        String etag = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH).andReturn()
+                .getHeader("ETag");
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("If-None-Match", etag)
+                .when()
+                .get(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(304);
+    }
+
     @Test
     @DisplayName("Returns internal server error when downloading a file that does not exist")
     void testFailedDownloadJPGFile() {
@@ -189,12 +315,243 @@ class FileControllerTest extends AbstractTest {
     }
 
     @Test
-    @DisplayName("Returns a not found error on attempting to delete a nonexistent file")
+    @DisplayName("Returns a not found error on attempting to delete a file of a nonexistent bucket")
     void testFailedDeleteNonexistentFile() throws IOException {
         Response deleteResponse = given().auth()
                 .oauth2(keycloakTestClient.getClientAccessToken(USER))
                 .when()
-                .delete(BASE_PATH + BUCKET_NAME + "/" + NONEXISTENT_FILE_PATH).andReturn();
+                .delete(BASE_PATH + NONEXISTENT_BUCKET_NAME + "/" + NONEXISTENT_FILE_PATH).andReturn();
         deleteResponse.then().statusCode(404);
     }
+
+    @Test
+    @DisplayName("Deleting a nonexistent file of an existing bucket succeeds like any object storage delete")
+    void testDeleteNonexistentFileOfExistingBucket() {
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .post(BASE_PATH + "bucket/" + BUCKET_NAME)
+                .then().statusCode(201);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .delete(BASE_PATH + BUCKET_NAME + "/" + NONEXISTENT_FILE_PATH)
+                .then().statusCode(201);
+    }
+
+    @Test
+    @DisplayName("Deletes many files with one request and returns the result per path")
+    void testSuccessfulDeleteFiles() throws Exception {
+        File sampleFile = new File(SAMPLE_FILE_PATH);
+        for (String path : List.of(MINIO_FILE_PATH, MINIO_UNKNOWN_FILE_PATH)) {
+            given().auth()
+                    .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                    .multiPart(FORM_PARAM_FILE, sampleFile)
+                    .when()
+                    .put(BASE_PATH + BUCKET_NAME + "/" + path)
+                    .then().statusCode(201);
+        }
+
+        List<FileDeleteResultDTO> results = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(MINIO_FILE_PATH, MINIO_UNKNOWN_FILE_PATH, MINIO_FILE_PATH))
+                .when()
+                .delete(BASE_PATH + BUCKET_NAME)
+                .then().statusCode(200)
+                .extract().as(new TypeRef<>() {
+                });
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == FileDeleteStatusDTO.DELETED));
+        assertThrows(ErrorResponseException.class, () -> minioClient.statObject(StatObjectArgs.builder()
+                .bucket(BUCKET_NAME)
+                .object(MINIO_FILE_PATH)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Reports the files of a nonexistent bucket as not found")
+    void testDeleteFilesOfNonexistentBucket() {
+        List<FileDeleteResultDTO> results = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(MINIO_FILE_PATH, NONEXISTENT_FILE_PATH))
+                .when()
+                .delete(BASE_PATH + NONEXISTENT_BUCKET_NAME)
+                .then().statusCode(200)
+                .extract().as(new TypeRef<>() {
+                });
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == FileDeleteStatusDTO.NOT_FOUND));
+    }
+
+    @Test
+    @DisplayName("Deletes the given version of a file in a versioned bucket and keeps the current one")
+    void testSuccessfulDeleteFileVersion() throws Exception {
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .when()
+                .post(BASE_PATH + "bucket/" + VERSIONED_BUCKET_NAME)
+                .then().statusCode(201);
+        minioClient.setBucketVersioning(SetBucketVersioningArgs.builder()
+                .bucket(VERSIONED_BUCKET_NAME)
+                .config(new VersioningConfiguration(VersioningConfiguration.Status.ENABLED, null))
+                .build());
+        for (String path : List.of(SAMPLE_FILE_PATH, SAMPLE2_FILE_PATH)) {
+            given().auth()
+                    .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                    .multiPart(FORM_PARAM_FILE, new File(path))
+                    .when()
+                    .put(BASE_PATH + VERSIONED_BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                    .then().statusCode(201);
+        }
+        String oldVersionId = null;
+        String currentVersionId = null;
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(VERSIONED_BUCKET_NAME)
+                .prefix(MINIO_FILE_PATH)
+                .includeVersions(true)
+                .build())) {
+            Item item = result.get();
+            if (item.isLatest()) {
+                currentVersionId = item.versionId();
+            } else {
+                oldVersionId = item.versionId();
+            }
+        }
+        assertNotNull(oldVersionId);
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .queryParam("versionId", oldVersionId)
+                .when()
+                .delete(BASE_PATH + VERSIONED_BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(201);
+
+        String deletedVersionId = oldVersionId;
+        assertThrows(ErrorResponseException.class, () -> minioClient.statObject(StatObjectArgs.builder()
+                .bucket(VERSIONED_BUCKET_NAME)
+                .object(MINIO_FILE_PATH)
+                .versionId(deletedVersionId)
+                .build()));
+        assertEquals(currentVersionId, minioClient.statObject(StatObjectArgs.builder()
+                .bucket(VERSIONED_BUCKET_NAME)
+                .object(MINIO_FILE_PATH)
+                .build()).versionId());
+    }
+
+    @Test
+    @DisplayName("Deletes a file whose ETag matches If-Match")
+    void testSuccessfulDeleteFileWithMatchingETag() throws Exception {
+        String etag = uploadFile(IF_MATCH_FILE_PATH);
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("If-Match", "\"" + etag + "\"")
+                .when()
+                .delete(BASE_PATH + BUCKET_NAME + "/" + IF_MATCH_FILE_PATH)
+                .then().statusCode(201);
+
+        assertThrows(ErrorResponseException.class, () -> minioClient.statObject(StatObjectArgs.builder()
+                .bucket(BUCKET_NAME)
+                .object(IF_MATCH_FILE_PATH)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Returns precondition failed and keeps a file whose ETag does not match If-Match")
+    void testFailedDeleteFileWithStaleETag() throws Exception {
+        String etag = uploadFile(IF_MATCH_FILE_PATH);
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .header("If-Match", "\"stale-etag\"")
+                .when()
+                .delete(BASE_PATH + BUCKET_NAME + "/" + IF_MATCH_FILE_PATH)
+                .then().statusCode(412);
+
+        assertEquals(etag, minioClient.statObject(StatObjectArgs.builder()
+                .bucket(BUCKET_NAME)
+                .object(IF_MATCH_FILE_PATH)
+                .build()).etag());
+    }
+
+    @Test
+    @DisplayName("Deletes many files of a bucket given in upper case like the upload")
+    void testDeleteFilesOfUpperCaseBucket() throws Exception {
+        uploadFile(IF_MATCH_FILE_PATH);
+
+        List<FileDeleteResultDTO> results = given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(List.of(IF_MATCH_FILE_PATH))
+                .when()
+                .delete(BASE_PATH + BUCKET_NAME.toUpperCase(Locale.ROOT))
+                .then().statusCode(200)
+                .extract().as(new TypeRef<>() {
+                });
+
+        assertEquals(FileDeleteStatusDTO.DELETED, results.get(0).getStatus());
+        assertThrows(ErrorResponseException.class, () -> minioClient.statObject(StatObjectArgs.builder()
+                .bucket(BUCKET_NAME)
+                .object(IF_MATCH_FILE_PATH)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Uploads to a cached bucket which was deleted in the meantime")
+    void testUploadRecreatesDeletedBucket() throws Exception {
+        File sampleFile = new File(SAMPLE_FILE_PATH);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile)
+                .when()
+                .put(BASE_PATH + DELETED_BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(201);
+
+        minioClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(DELETED_BUCKET_NAME)
+                .object(MINIO_FILE_PATH)
+                .build());
+        minioClient.removeBucket(RemoveBucketArgs.builder().bucket(DELETED_BUCKET_NAME).build());
+
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile)
+                .when()
+                .put(BASE_PATH + DELETED_BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(201);
+        assertTrue(minioClient.bucketExists(BucketExistsArgs.builder().bucket(DELETED_BUCKET_NAME).build()));
+    }
+
+    /**
+     * @return the ETag of the uploaded file
+     */
+    private String uploadFile(String path) throws Exception {
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, new File(SAMPLE_FILE_PATH))
+                .when()
+                .put(BASE_PATH + BUCKET_NAME + "/" + path)
+                .then().statusCode(201);
+        return minioClient.statObject(StatObjectArgs.builder()
+                .bucket(BUCKET_NAME)
+                .object(path)
+                .build()).etag();
+    }
+
+    private byte[] uploadSampleFile() throws IOException {
+        File sampleFile = new File(SAMPLE_FILE_PATH);
+        given().auth()
+                .oauth2(keycloakTestClient.getClientAccessToken(USER))
+                .multiPart(FORM_PARAM_FILE, sampleFile)
+                .when()
+                .put(BASE_PATH + BUCKET_NAME + "/" + MINIO_FILE_PATH)
+                .then().statusCode(201);
+        try (InputStream is = new BufferedInputStream(new FileInputStream(sampleFile))) {
+            return is.readAllBytes();
+        }
+    }
 }
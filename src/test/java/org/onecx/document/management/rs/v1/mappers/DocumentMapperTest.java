@@ -0,0 +1,98 @@
+package org.onecx.document.management.rs.v1.mappers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.onecx.document.management.domain.models.entities.DocumentCharacteristic;
+
+import gen.org.onecx.document.management.rs.v1.model.DocumentCharacteristicCreateUpdateDTO;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class DocumentMapperTest {
+
+    private static final Logger LOG = Logger.getLogger(DocumentMapperTest.class);
+    private static final int ITERATIONS = 5;
+    private static final String UPDATED_VALUE = "updated";
+
+    @Inject
+    DocumentMapper documentMapper;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 100, 1000, 10000 })
+    @DisplayName("Merges a collection by id: updates, removes and adds items.")
+    void testUpdateTraceableCollection(int size) {
+        long nanos = 0;
+        Set<DocumentCharacteristic> collection = null;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            collection = characteristics(size);
+            Set<DocumentCharacteristicCreateUpdateDTO> newItems = updateDTOs(size);
+            long start = System.nanoTime();
+            documentMapper.updateTraceableCollection(collection, newItems,
+                    DocumentCharacteristic::getId,
+                    DocumentCharacteristicCreateUpdateDTO::getId,
+                    (dto, entity) -> {
+                        entity.setValue(dto.getValue());
+                        return entity;
+                    },
+                    dto -> {
+                        var entity = new DocumentCharacteristic();
+                        entity.setId(dto.getName());
+                        entity.setName(dto.getName());
+                        entity.setValue(dto.getValue());
+                        return entity;
+                    });
+            nanos += System.nanoTime() - start;
+        }
+        LOG.infof("updateTraceableCollection of %d items: %d us", size, nanos / 1000 / ITERATIONS);
+
+        assertThat(collection).hasSize(size);
+        assertThat(collection).filteredOn(entity -> UPDATED_VALUE.equals(entity.getValue()))
+                .hasSize(size / 2)
+                .allMatch(entity -> Integer.parseInt(entity.getId()) % 2 == 0);
+        assertThat(collection).filteredOn(entity -> entity.getId().startsWith("new_"))
+                .hasSize(size / 2);
+    }
+
+    /**
+     * @return the existing items with the ids 0 to size - 1
+     */
+    private static Set<DocumentCharacteristic> characteristics(int size) {
+        Set<DocumentCharacteristic> characteristics = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            var characteristic = new DocumentCharacteristic();
+            characteristic.setId(String.valueOf(i));
+            characteristic.setName("characteristic_" + i);
+            characteristic.setValue("value_" + i);
+            characteristics.add(characteristic);
+        }
+        return characteristics;
+    }
+
+    /**
+     * @return updates of the items with an even id and as many new items
+     */
+    private static Set<DocumentCharacteristicCreateUpdateDTO> updateDTOs(int size) {
+        Set<DocumentCharacteristicCreateUpdateDTO> dtos = new LinkedHashSet<>();
+        for (int i = 0; i < size; i += 2) {
+            var update = new DocumentCharacteristicCreateUpdateDTO();
+            update.setId(String.valueOf(i));
+            update.setName("characteristic_" + i);
+            update.setValue(UPDATED_VALUE);
+            dtos.add(update);
+            var added = new DocumentCharacteristicCreateUpdateDTO();
+            added.setName("new_" + i);
+            added.setValue("new_value_" + i);
+            dtos.add(added);
+        }
+        return dtos;
+    }
+}
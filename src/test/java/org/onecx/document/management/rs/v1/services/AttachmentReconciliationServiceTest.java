@@ -0,0 +1,106 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.onecx.document.management.domain.daos.AttachmentDAO;
+import org.onecx.document.management.test.Await;
+import org.tkit.quarkus.test.WithDBData;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+@WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+class AttachmentReconciliationServiceTest {
+
+    private static final String ORPHAN_OBJECT = "000-orphan-object";
+    /* uploaded according to the test data, but without an object */
+    private static final String ATTACHMENT_WITHOUT_OBJECT = "101";
+
+    @Inject
+    AttachmentReconciliationService attachmentReconciliationService;
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
+    @Inject
+    AttachmentDAO attachmentDAO;
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket.folder")
+    String bucketFolder;
+
+    @Test
+    @DisplayName("A dry run reports the orphans without repairing them.")
+    void testDryRun() throws Exception {
+        putOrphanObject();
+
+        var report = attachmentReconciliationService.reconcile(true);
+
+        assertThat(report.dryRun()).isTrue();
+        assertThat(report.orphanObjects()).isPositive();
+        assertThat(report.missingObjects()).isPositive();
+        assertThat(objectDeletionOutboxService.countEntries()).isZero();
+        assertThat(isUploaded(ATTACHMENT_WITHOUT_OBJECT)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A repair run of a bucket which is not exclusive to attachments keeps the orphan objects.")
+    void testRepairKeepsObjectsOfSharedBucket() throws Exception {
+        putOrphanObject();
+
+        var report = attachmentReconciliationService.reconcile(false);
+
+        assertThat(report.dryRun()).isFalse();
+        assertThat(report.orphanObjects()).isPositive();
+        assertThat(isUploaded(ATTACHMENT_WITHOUT_OBJECT)).isFalse();
+        assertThat(objectDeletionOutboxService.countEntries()).isZero();
+        assertThat(attachmentReconciliationService.reconcile(true).orphanObjects()).isPositive();
+    }
+
+    @Test
+    @DisplayName("A repair run deletes orphan objects and marks attachments without object as not uploaded.")
+    void testRepair() throws Exception {
+        putOrphanObject();
+
+        var report = attachmentReconciliationService.reconcile(false, true);
+
+        assertThat(report.dryRun()).isFalse();
+        assertThat(report.orphanObjects()).isPositive();
+        assertThat(isUploaded(ATTACHMENT_WITHOUT_OBJECT)).isFalse();
+        assertThat(Await.until(() -> objectDeletionOutboxService.countEntries() == 0, Duration.ofSeconds(10)))
+                .isTrue();
+        assertThat(attachmentReconciliationService.reconcile(true).orphanObjects()).isZero();
+    }
+
+    private boolean isUploaded(String attachmentId) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> attachmentDAO.findById(attachmentId).getStorageUploadStatus());
+    }
+
+    private void putOrphanObject() throws Exception {
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketFolder).build())) {
+            minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketFolder).build());
+        }
+        byte[] content = "orphan".getBytes();
+        minioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucketFolder)
+                .object(ORPHAN_OBJECT)
+                .stream(new ByteArrayInputStream(content), content.length, -1)
+                .build());
+    }
+}
@@ -0,0 +1,88 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AttachmentZipWriterTest {
+
+    private static final String OBJECT_ID = "zip-writer-test";
+    private static final int READ_AHEAD_BYTES = 4096;
+
+    private final byte[] content = new byte[READ_AHEAD_BYTES * 10];
+
+    private ExecutorService executor;
+
+    private AttachmentZipWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new Random(42).nextBytes(content);
+        executor = Executors.newSingleThreadExecutor();
+        writer = new AttachmentZipWriter();
+        writer.documentService = mock(DocumentService.class);
+        writer.objectStorageExecutor = mock(ObjectStorageExecutor.class);
+        writer.prefetchCount = 1;
+        writer.readAheadBytes = READ_AHEAD_BYTES;
+        writer.downloadBufferSize = 1024;
+        writer.deflateLevel = -1;
+        writer.compressibleMimeTypes = List.of("text/");
+        when(writer.objectStorageExecutor.getDownloadExecutor()).thenReturn(executor);
+        when(writer.documentService.getObjectFromObjectStore(OBJECT_ID))
+                .thenAnswer(invocation -> new ByteArrayInputStream(content));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Files larger than the read-ahead buffer are stored if stored is requested")
+    void testLargeFileIsStored() throws Exception {
+        ZipEntry entry = writeAndRead(ZipCompression.STORED);
+        assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+        assertThat(entry.getSize()).isEqualTo(content.length);
+    }
+
+    @Test
+    @DisplayName("Files larger than the read-ahead buffer fall back to deflate without compression in auto mode")
+    void testLargeFileIsDeflatedInAutoMode() throws Exception {
+        assertThat(writeAndRead(ZipCompression.AUTO).getMethod()).isEqualTo(ZipEntry.DEFLATED);
+    }
+
+    /**
+     * Writes the object into a ZIP and checks the content read back.
+     *
+     * @return the entry of the object
+     */
+    private ZipEntry writeAndRead(ZipCompression compression) throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(out)) {
+            var item = new ZipItem("file.pdf", OBJECT_ID, FileTime.fromMillis(0), "application/pdf");
+            writer.write(List.of(item).iterator(), zip, compression);
+        }
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry = zip.getNextEntry();
+            assertThat(zip.readAllBytes()).isEqualTo(content);
+            assertThat(zip.getNextEntry()).isNull();
+            return entry;
+        }
+    }
+}
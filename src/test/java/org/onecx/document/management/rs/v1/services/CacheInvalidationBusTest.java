@@ -0,0 +1,96 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.onecx.document.management.domain.daos.DocumentTypeDAO;
+import org.onecx.document.management.domain.models.entities.DocumentType;
+import org.onecx.document.management.test.Await;
+import org.tkit.quarkus.test.WithDBData;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+@WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+class CacheInvalidationBusTest {
+
+    private static final String NEW_DOCUMENT_TYPE_ID = "cache-invalidation-test";
+
+    @Inject
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
+    @Inject
+    DocumentTypeDAO documentTypeDAO;
+
+    @BeforeEach
+    void evictReferenceDataCache() {
+        referenceDataCache.evictAll();
+    }
+
+    @Test
+    @DisplayName("A change published by another pod evicts the cached entries after the commit.")
+    void testPublishedChangeEvictsCache() {
+        assertThat(referenceDataCache.findAllDocumentTypes()).hasSize(3);
+        assertThat(referenceDataCache.documentTypeExists(NEW_DOCUMENT_TYPE_ID)).isFalse();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            createDocumentType();
+            cacheInvalidationBus.publish(ReferenceDataCache.Type.DOCUMENT_TYPE, NEW_DOCUMENT_TYPE_ID);
+        });
+
+        assertThat(await(() -> referenceDataCache.documentTypeExists(NEW_DOCUMENT_TYPE_ID))).isTrue();
+        assertThat(referenceDataCache.findAllDocumentTypes()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("A change published in a rolled back transaction is not delivered.")
+    void testRolledBackChangeIsNotPublished() {
+        assertThat(referenceDataCache.findAllDocumentTypes()).hasSize(3);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            cacheInvalidationBus.publish(ReferenceDataCache.Type.DOCUMENT_TYPE, null);
+            QuarkusTransaction.setRollbackOnly();
+        });
+        QuarkusTransaction.requiringNew().run(this::createDocumentType);
+
+        assertThat(await(() -> referenceDataCache.findAllDocumentTypes().size() != 3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A notification evicts the entry of its type and id, unknown types are ignored.")
+    void testNotificationEvictsEntry() {
+        assertThat(referenceDataCache.documentTypeExists(NEW_DOCUMENT_TYPE_ID)).isFalse();
+        QuarkusTransaction.requiringNew().run(this::createDocumentType);
+
+        cacheInvalidationBus.onNotification("UNKNOWN:" + NEW_DOCUMENT_TYPE_ID);
+        assertThat(referenceDataCache.documentTypeExists(NEW_DOCUMENT_TYPE_ID)).isFalse();
+        cacheInvalidationBus.onNotification("DOCUMENT_TYPE:" + NEW_DOCUMENT_TYPE_ID);
+        assertThat(referenceDataCache.documentTypeExists(NEW_DOCUMENT_TYPE_ID)).isTrue();
+    }
+
+    /**
+     * Creates a document type like another pod does, without the local
+     * invalidation.
+     */
+    private void createDocumentType() {
+        var documentType = new DocumentType();
+        documentType.setId(NEW_DOCUMENT_TYPE_ID);
+        documentType.setName("cache invalidation");
+        documentTypeDAO.create(documentType);
+    }
+
+    private static boolean await(BooleanSupplier condition) {
+        return Await.until(condition, Duration.ofSeconds(2));
+    }
+}
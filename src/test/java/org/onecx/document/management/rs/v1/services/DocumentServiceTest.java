@@ -0,0 +1,124 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.multipart.FileItem;
+import org.jboss.resteasy.reactive.server.multipart.FormValue;
+import org.jboss.resteasy.reactive.server.multipart.MultipartFormDataInput;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.onecx.document.management.domain.daos.AttachmentDAO;
+import org.onecx.document.management.domain.daos.StorageUploadAuditDAO;
+import org.onecx.document.management.domain.models.entities.Attachment;
+import org.onecx.document.management.domain.models.entities.StorageUploadAudit;
+import org.tkit.quarkus.test.WithDBData;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+@WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+class DocumentServiceTest {
+
+    private static final String DOCUMENT_ID = "56";
+    private static final String UPLOADED_ATTACHMENT_ID = "107";
+    private static final String UPLOADED_FILE_NAME = "sample.jpg";
+    private static final String FAILED_ATTACHMENT_ID = "108";
+    private static final String FAILED_FILE_NAME = "sample2.jpg";
+
+    @Inject
+    DocumentService documentService;
+
+    @Inject
+    AttachmentDAO attachmentDAO;
+
+    @Inject
+    StorageUploadAuditDAO storageUploadAuditDAO;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket.folder")
+    String bucketFolder;
+
+    @Test
+    @DisplayName("A failed upload of one of the parallel uploads is audited, the others are committed.")
+    void testUploadAttachmentWithOneFailedFile() throws Exception {
+        createBucketIfMissing();
+        QuarkusTransaction.requiringNew().run(() -> entityManager
+                .createNativeQuery("update dm_attachment set storage_upload_status = false where document_guid = :id")
+                .setParameter("id", DOCUMENT_ID)
+                .executeUpdate());
+        byte[] content = "uploaded attachment".getBytes();
+        FileItem uploadedFile = mock(FileItem.class);
+        when(uploadedFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(uploadedFile.getFileSize()).thenReturn((long) content.length);
+        FileItem failedFile = mock(FileItem.class);
+        when(failedFile.getInputStream()).thenThrow(new IOException("Upload aborted"));
+        when(failedFile.getFileSize()).thenReturn((long) content.length);
+        MultipartFormDataInput input = mock(MultipartFormDataInput.class);
+        when(input.getValues()).thenReturn(Map.of("file", new ArrayList<>(List.of(
+                formValue(UPLOADED_FILE_NAME, uploadedFile), formValue(FAILED_FILE_NAME, failedFile)))));
+
+        Map<String, Integer> statuses = documentService.uploadAttachment(DOCUMENT_ID, input);
+
+        assertThat(statuses).containsEntry(UPLOADED_ATTACHMENT_ID + "/atachment_7",
+                Response.Status.CREATED.getStatusCode())
+                .containsEntry(FAILED_ATTACHMENT_ID + "/atachment_8",
+                        Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        Attachment uploaded = findAttachment(UPLOADED_ATTACHMENT_ID);
+        assertThat(uploaded.getStorageUploadStatus()).isTrue();
+        assertThat(uploaded.getSize()).isEqualByComparingTo(BigDecimal.valueOf(content.length));
+        Attachment failed = findAttachment(FAILED_ATTACHMENT_ID);
+        assertThat(failed.getStorageUploadStatus()).isFalse();
+        assertThat(failed.getSize()).isEqualByComparingTo(new BigDecimal("3.00"));
+        List<StorageUploadAudit> audits = QuarkusTransaction.requiringNew()
+                .call(() -> storageUploadAuditDAO.findFailedAttachmentsByDocumentId(DOCUMENT_ID));
+        assertThat(audits).extracting(StorageUploadAudit::getAttachmentId).containsExactly(FAILED_ATTACHMENT_ID);
+        assertThat(audits.get(0).getFileName()).isEqualTo(FAILED_FILE_NAME);
+    }
+
+    private FormValue formValue(String fileName, FileItem fileItem) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, "image/jpeg");
+        FormValue formValue = mock(FormValue.class);
+        when(formValue.isFileItem()).thenReturn(true);
+        when(formValue.getFileName()).thenReturn(fileName);
+        when(formValue.getFileItem()).thenReturn(fileItem);
+        when(formValue.getHeaders()).thenReturn(headers);
+        return formValue;
+    }
+
+    private Attachment findAttachment(String attachmentId) {
+        return QuarkusTransaction.requiringNew().call(() -> attachmentDAO.findById(attachmentId));
+    }
+
+    private void createBucketIfMissing() throws Exception {
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketFolder).build())) {
+            minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketFolder).build());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.onecx.document.management.domain.daos.MinioAuditLogDAO;
+import org.onecx.document.management.domain.models.entities.MinioAuditLog;
+import org.tkit.quarkus.test.WithDBData;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+@WithDBData(value = { "document-management-test-data.xml" }, deleteBeforeInsert = true, rinseAndRepeat = true)
+class MinioAuditLogSweepServiceTest {
+
+    private static final int ADDITIONAL_RECORDS = 4;
+
+    @Inject
+    MinioAuditLogSweepService minioAuditLogSweepService;
+
+    @Inject
+    MinioAuditLogDAO minioAuditLogDAO;
+
+    @Test
+    @DisplayName("Sweeps the minio audit log in keyset-ordered chunks.")
+    void testSweepChunk() {
+        createRecords();
+
+        var first = minioAuditLogSweepService.sweepChunk(null, 2);
+        assertThat(first.claimed()).isEqualTo(2);
+        assertThat(first.deleted()).isEqualTo(2);
+        var second = minioAuditLogSweepService.sweepChunk(first.lastId(), 2);
+        assertThat(second.claimed()).isEqualTo(2);
+        assertThat(second.lastId()).isGreaterThan(first.lastId());
+        assertThat(minioAuditLogDAO.getAllRecords()).hasSize(ADDITIONAL_RECORDS + 1 - 4);
+    }
+
+    @Test
+    @DisplayName("A sweep deletes all records whose object could be deleted.")
+    void testSweep() {
+        createRecords();
+
+        assertThat(minioAuditLogSweepService.sweep()).isEqualTo(ADDITIONAL_RECORDS + 1);
+        assertThat(minioAuditLogDAO.getAllRecords()).isEmpty();
+    }
+
+    private void createRecords() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < ADDITIONAL_RECORDS; i++) {
+                var minioAuditLog = new MinioAuditLog();
+                minioAuditLog.setAttachmentId("sweep-test-" + i);
+                minioAuditLogDAO.create(minioAuditLog);
+            }
+        });
+    }
+}
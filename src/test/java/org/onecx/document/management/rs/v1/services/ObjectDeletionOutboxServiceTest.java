@@ -0,0 +1,40 @@
+package org.onecx.document.management.rs.v1.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.onecx.document.management.test.Await;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class ObjectDeletionOutboxServiceTest {
+
+    @Inject
+    ObjectDeletionOutboxService objectDeletionOutboxService;
+
+    @Test
+    @DisplayName("The retry backoff doubles per attempt up to the max. backoff")
+    void testBackoff() {
+        assertThat(objectDeletionOutboxService.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(objectDeletionOutboxService.backoff(2)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(objectDeletionOutboxService.backoff(4)).isEqualTo(Duration.ofSeconds(80));
+        assertThat(objectDeletionOutboxService.backoff(10)).isEqualTo(Duration.ofHours(1));
+        assertThat(objectDeletionOutboxService.backoff(Integer.MAX_VALUE)).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Enqueued keys are drained from the outbox")
+    void testEnqueuedKeysAreDrained() {
+        objectDeletionOutboxService.enqueue(List.of("outbox-test-1", "outbox-test-2", "outbox-test-1"));
+
+        assertThat(Await.until(() -> objectDeletionOutboxService.countEntries() == 0, Duration.ofSeconds(10)))
+                .isTrue();
+    }
+}
@@ -1,5 +1,10 @@
 package org.onecx.document.management.test;
 
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.onecx.document.management.rs.v1.services.ReferenceDataCache;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -15,6 +20,9 @@ import io.restassured.config.RestAssuredConfig;
 public abstract class AbstractTest {
     public KeycloakTestClient keycloakTestClient = new KeycloakTestClient();
 
+    @Inject
+    ReferenceDataCache referenceDataCache;
+
     static {
         RestAssured.config = RestAssuredConfig.config().objectMapperConfig(
                 ObjectMapperConfig.objectMapperConfig().jackson2ObjectMapperFactory(
@@ -29,4 +37,13 @@ public abstract class AbstractTest {
     }
 
     public static final String USER = "bob";
+
+    /**
+     * The test data is reset directly in the database, so the reference data
+     * cached by a previous test is evicted.
+     */
+    @BeforeEach
+    void evictReferenceDataCache() {
+        referenceDataCache.evictAll();
+    }
 }
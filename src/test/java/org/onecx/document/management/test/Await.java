@@ -0,0 +1,39 @@
+package org.onecx.document.management.test;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for the effects of asynchronous work, e.g. the object deletion outbox or
+ * the cache invalidation notifications.
+ */
+public final class Await {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private Await() {
+    }
+
+    /**
+     * Polls the condition until it is true or the timeout elapsed.
+     *
+     * @param condition the condition to wait for
+     * @param timeout the max. time to wait
+     * @return the last result of the condition
+     */
+    public static boolean until(BooleanSupplier condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return condition.getAsBoolean();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting", e);
+            }
+        }
+        return true;
+    }
+}
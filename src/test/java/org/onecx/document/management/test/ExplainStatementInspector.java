@@ -0,0 +1,67 @@
+package org.onecx.document.management.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+
+/**
+ * Prefixes the select statements of the current thread with
+ * {@code EXPLAIN (FORMAT JSON)} while {@link #explain(Supplier)} runs, so a
+ * query returning one string column returns the plan of its statement with the
+ * parameters bound like in production. {@link #capture(Runnable)} records the
+ * statements of the current thread instead.
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class ExplainStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Boolean> EXPLAIN = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        if (EXPLAIN.get() && sql.regionMatches(true, 0, "select", 0, 6)) {
+            return "explain (format json) " + sql;
+        }
+        return sql;
+    }
+
+    /**
+     * @param query runs the query to explain
+     * @return the result of the query, which is the plan
+     */
+    public static <T> T explain(Supplier<T> query) {
+        EXPLAIN.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            EXPLAIN.remove();
+        }
+    }
+
+    /**
+     * @param action runs the statements to capture
+     * @return the SQL of the statements in the order of their execution
+     */
+    public static List<String> capture(Runnable action) {
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+            return captured;
+        } finally {
+            CAPTURED.remove();
+        }
+    }
+}